@@ -0,0 +1,283 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Optional;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the whole analyzer chain, see {@link ChainAnalyzer}.
+ * <p>One operation analyzes the whole corpus, split into documents of {@link #documentSize} chars.
+ * The <code>tokens</code> and <code>bytes</code> counters give tokens/s and UTF-8 bytes/s of the input.
+ * With <code>reuse=false</code> every document gets a newly built chain, as without
+ * the reuse strategy of the analyzer. The chain can be cut after any {@link ChainAnalyzer.Stage},
+ * the difference between two neighbouring stages is the time of the later one. Run through
+ * {@link #main(String[])} to get the share of every stage in the time of the full chain
+ * and the time of the {@link ChainAnalyzer.Stage#FUSED} chain relative to it. It skips the redundant
+ * combinations of the parameter matrix: the stages before {@link ChainAnalyzer.Stage#STEM} do not depend
+ * on the stemmer and run with one stemmer only, and the fused chain of HELEBRAND is the one
+ * of HELEBRAND_TRIE. That is 66 forks instead of the 144 of the whole matrix, which JMH's own
+ * <code>Main</code> would run:</p>
+ * <pre>
+ * mvn -P benchmark package
+ * java -cp target/benchmarks.jar cz.cvut.skorpste.dip.stemmer.benchmark.AnalyzerChainBenchmark -p documentSize=4000000
+ * </pre>
+ * <p>The corpus is generated by {@link CzechWords#text(int, long)}, set <code>-p corpus=file.txt</code>
+ * to analyze a UTF-8 text file instead.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzerChainBenchmark {
+    static final int TEXT_CHARS = 4 << 20;
+    static final String FIELD = "text";
+
+    @Param({"AGRESSIVE", "LIGHT", "HELEBRAND", "HELEBRAND_TRIE"})
+    public ChainAnalyzer.StemmerImpl stemmer;
+
+    @Param({"TOKENIZER", "STANDARD", "LOWERCASE", "STOP", "STEM", "FUSED"})
+    public ChainAnalyzer.Stage stage;
+
+    @Param({"true", "false"})
+    public boolean reuse;
+
+    @Param({"1000", "100000", "4000000"})
+    public int documentSize;
+
+    /**
+     * UTF-8 text file to analyze, empty for the generated text
+     */
+    @Param({""})
+    public String corpus;
+
+    private String[] documents;
+    private long bytes;
+    private Analyzer analyzer;
+
+    /**
+     * Tokens and input bytes analyzed, reported per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class Counters {
+        public long tokens;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        String text;
+        if (corpus.isEmpty()) {
+            text = CzechWords.text(TEXT_CHARS, 42);
+        } else {
+            text = new String(Files.readAllBytes(new File(corpus).toPath()), StandardCharsets.UTF_8);
+        }
+        documents = split(text, documentSize);
+        bytes = text.getBytes(StandardCharsets.UTF_8).length;
+        analyzer = new ChainAnalyzer(stemmer, stage, reuse);
+    }
+
+    /**
+     * Splits the text to documents of about the given size, at whitespace
+     */
+    static String[] split(String text, int size) {
+        List<String> documents = new ArrayList<String>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(start + size, text.length());
+            while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+                end++;
+            }
+            documents.add(text.substring(start, end));
+            start = end;
+        }
+        return documents.toArray(new String[documents.size()]);
+    }
+
+    @Benchmark
+    public int analyze(Counters counters) throws IOException {
+        int tokens = 0;
+        int chars = 0;
+        for (String document : documents) {
+            TokenStream stream = analyzer.tokenStream(FIELD, document);
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            try {
+                stream.reset();
+                while (stream.incrementToken()) {
+                    tokens++;
+                    chars += term.length();
+                }
+                stream.end();
+            } finally {
+                stream.close();
+            }
+        }
+        counters.tokens += tokens;
+        counters.bytes += bytes;
+        return chars;
+    }
+
+    /**
+     * Runs the benchmark with the given JMH options and prints the share of every stage
+     * in the time of the full chain, with tokens/s and MB/s of the full chain.
+     * The <code>stemmer</code> and <code>stage</code> given by <code>-p</code> restrict the runs.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String[] stemmers = select(commandLine, "stemmer", "AGRESSIVE", "LIGHT", "HELEBRAND", "HELEBRAND_TRIE");
+        List<RunResult> results = new ArrayList<RunResult>();
+        if (stemmers.length > 0) {
+            results.addAll(run(commandLine, select(commandLine, "stage", "TOKENIZER", "STANDARD", "LOWERCASE", "STOP"),
+                    new String[] { stemmers[0] }));
+        }
+        results.addAll(run(commandLine, select(commandLine, "stage", "STEM"), stemmers));
+        List<String> fused = new ArrayList<String>(Arrays.asList(stemmers));
+        if (fused.contains("HELEBRAND_TRIE")) {
+            // both build the same fused chain
+            fused.remove("HELEBRAND");
+        }
+        results.addAll(run(commandLine, select(commandLine, "stage", "FUSED"), fused.toArray(new String[fused.size()])));
+
+        // parameters but the stemmer -> stage -> result of the stages before the stemmer
+        Map<String, Map<ChainAnalyzer.Stage, RunResult>> prefixes = new TreeMap<String, Map<ChainAnalyzer.Stage, RunResult>>();
+        // chain (everything but the stage) -> stage -> result
+        Map<String, Map<ChainAnalyzer.Stage, RunResult>> chains = new TreeMap<String, Map<ChainAnalyzer.Stage, RunResult>>();
+        for (RunResult result : results) {
+            ChainAnalyzer.Stage stage = ChainAnalyzer.Stage.valueOf(result.getParams().getParam("stage"));
+            String prefix = prefixKey(result);
+            if (stage.compareTo(ChainAnalyzer.Stage.STEM) < 0) {
+                get(prefixes, prefix).put(stage, result);
+            } else {
+                get(chains, "stemmer=" + result.getParams().getParam("stemmer") + " " + prefix).put(stage, result);
+            }
+        }
+
+        for (Map.Entry<String, Map<ChainAnalyzer.Stage, RunResult>> chain : chains.entrySet()) {
+            Map<ChainAnalyzer.Stage, RunResult> stages = new TreeMap<ChainAnalyzer.Stage, RunResult>(chain.getValue());
+            RunResult any = stages.values().iterator().next();
+            Map<ChainAnalyzer.Stage, RunResult> prefix = prefixes.get(prefixKey(any));
+            if (prefix != null) {
+                stages.putAll(prefix);
+            }
+            System.out.println(chain.getKey());
+            RunResult full = stages.get(ChainAnalyzer.Stage.STEM);
+            if (full == null) {
+                System.out.println("  no full chain result");
+                continue;
+            }
+            Map<String, Result> counters = full.getSecondaryResults();
+            System.out.printf("  %.0f tokens/s, %.2f MB/s%n",
+                    counters.get("tokens").getScore(), counters.get("bytes").getScore() / (1 << 20));
+            double total = 1 / full.getPrimaryResult().getScore();
+            double previous = 0;
+            for (ChainAnalyzer.Stage stage : ChainAnalyzer.Stage.values()) {
+                RunResult result = stages.get(stage);
+                if (result == null || stage == ChainAnalyzer.Stage.FUSED) {
+                    continue;
+                }
+                double time = 1 / result.getPrimaryResult().getScore();
+                System.out.printf("  %-10s %5.1f %%%n", stage, 100 * (time - previous) / total);
+                previous = time;
+            }
+            RunResult fused = stages.get(ChainAnalyzer.Stage.FUSED);
+            if (fused != null) {
+                System.out.printf("  %-10s %5.1f %% of the full chain%n", ChainAnalyzer.Stage.FUSED,
+                        100 / fused.getPrimaryResult().getScore() / total);
+            }
+        }
+    }
+
+    /**
+     * @return the values of the parameter allowed by the <code>-p</code> options, in the given order
+     */
+    private static String[] select(CommandLineOptions commandLine, String param, String... values) {
+        Optional<Collection<String>> allowed = commandLine.getParameter(param);
+        List<String> selected = new ArrayList<String>();
+        for (String value : values) {
+            if (!allowed.hasValue() || allowed.get().contains(value)) {
+                selected.add(value);
+            }
+        }
+        return selected.toArray(new String[selected.size()]);
+    }
+
+    private static Collection<RunResult> run(CommandLineOptions commandLine, String[] stages, String[] stemmers)
+            throws RunnerException {
+        if (stages.length == 0 || stemmers.length == 0) {
+            return Collections.emptyList();
+        }
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .include(AnalyzerChainBenchmark.class.getSimpleName())
+                .param("stage", stages)
+                .param("stemmer", stemmers)
+                .build();
+        return new Runner(options).run();
+    }
+
+    /**
+     * @return the parameters but the stemmer and the stage
+     */
+    private static String prefixKey(RunResult result) {
+        StringBuilder key = new StringBuilder();
+        for (String param : result.getParams().getParamsKeys()) {
+            if (!"stemmer".equals(param) && !"stage".equals(param)) {
+                key.append(key.length() == 0 ? "" : " ").append(param).append('=').append(result.getParams().getParam(param));
+            }
+        }
+        return key.toString();
+    }
+
+    private static Map<ChainAnalyzer.Stage, RunResult> get(Map<String, Map<ChainAnalyzer.Stage, RunResult>> map,
+                                                           String key) {
+        Map<ChainAnalyzer.Stage, RunResult> stages = map.get(key);
+        if (stages == null) {
+            stages = new TreeMap<ChainAnalyzer.Stage, RunResult>();
+            map.put(key, stages);
+        }
+        return stages;
+    }
+}
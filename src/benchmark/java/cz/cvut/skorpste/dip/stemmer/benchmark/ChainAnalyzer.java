@@ -0,0 +1,132 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilter;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.fused.CzechFusedFilter;
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilter;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.cz.CzechAnalyzer;
+import org.apache.lucene.analysis.snowball.SnowballFilter;
+import org.apache.lucene.analysis.standard.StandardFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.util.CharArraySet;
+
+import java.io.Reader;
+
+/**
+ * The chain of the test <code>CzechAnalyzer</code>, StandardTokenizer, StandardFilter,
+ * LowerCaseFilter, StopFilter and the stemmer, which can be cut after any {@link Stage}
+ * or have its last three stages replaced by {@link CzechFusedFilter}.
+ * <p>The test analyzer is not on the benchmark classpath, so the chain is built here the same way,
+ * with the stopwords of Lucene's Czech analyzer.</p>
+ */
+public final class ChainAnalyzer extends Analyzer {
+    /**
+     * Stemmer at the end of the chain, the same choices as <code>CzechAnalyzer.StemmerImpl</code>
+     */
+    public enum StemmerImpl {
+        AGRESSIVE,
+        LIGHT,
+        HELEBRAND,
+        HELEBRAND_TRIE
+    }
+
+    /**
+     * Last stage of the chain, in the order they are applied, {@link #FUSED} is the full chain
+     * with a single {@link CzechFusedFilter} after the StandardFilter
+     */
+    public enum Stage {
+        TOKENIZER,
+        STANDARD,
+        LOWERCASE,
+        STOP,
+        STEM,
+        FUSED
+    }
+
+    /**
+     * Creates new components for every token stream
+     */
+    private static final ReuseStrategy NO_REUSE = new ReuseStrategy() {
+        @Override
+        public TokenStreamComponents getReusableComponents(Analyzer analyzer, String fieldName) {
+            return null;
+        }
+
+        @Override
+        public void setReusableComponents(Analyzer analyzer, String fieldName, TokenStreamComponents components) {
+        }
+    };
+
+    private final StemmerImpl si;
+    private final Stage stage;
+    private final CharArraySet stopwords = CzechAnalyzer.getDefaultStopSet();
+
+    /**
+     * Full chain with reused token streams
+     */
+    public ChainAnalyzer(StemmerImpl si) {
+        this(si, Stage.STEM, true);
+    }
+
+    /**
+     * @param si stemmer of the {@link Stage#STEM} stage
+     * @param stage last stage of the chain
+     * @param reuse false to build the whole chain again for every token stream
+     */
+    public ChainAnalyzer(StemmerImpl si, Stage stage, boolean reuse) {
+        super(reuse ? GLOBAL_REUSE_STRATEGY : NO_REUSE);
+        this.si = si;
+        this.stage = stage;
+    }
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        StandardTokenizer source = new StandardTokenizer(getVersion(), reader);
+        TokenStream result = source;
+        if (stage.compareTo(Stage.STANDARD) >= 0) {
+            result = new StandardFilter(getVersion(), result);
+        }
+        if (stage == Stage.FUSED) {
+            switch (si) {
+                case AGRESSIVE:
+                    result = new CzechFusedFilter(getVersion(), result, stopwords, null, new CzechAgressiveCharStemmer());
+                    break;
+                case LIGHT:
+                    result = new CzechFusedFilter(getVersion(), result, stopwords, null, new CzechLightCharStemmer());
+                    break;
+                default:
+                    result = new CzechFusedFilter(getVersion(), result, stopwords, null);
+                    break;
+            }
+            return new TokenStreamComponents(source, result);
+        }
+        if (stage.compareTo(Stage.LOWERCASE) >= 0) {
+            result = new LowerCaseFilter(getVersion(), result);
+        }
+        if (stage.compareTo(Stage.STOP) >= 0) {
+            result = new StopFilter(getVersion(), result, stopwords);
+        }
+        if (stage == Stage.STEM) {
+            switch (si) {
+                case AGRESSIVE:
+                    result = new CzechStemFilter(result, new CzechAgressiveCharStemmer());
+                    break;
+                case LIGHT:
+                    result = new CzechStemFilter(result, new CzechLightCharStemmer());
+                    break;
+                case HELEBRAND:
+                    result = new SnowballFilter(result, "CzechHelebrand");
+                    break;
+                case HELEBRAND_TRIE:
+                    result = new CzechHelebrandStemFilter(result);
+                    break;
+            }
+        }
+        return new TokenStreamComponents(source, result);
+    }
+}
@@ -0,0 +1,116 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.CorpusGenerator;
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.CorpusTokenStream;
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.PreTokenizedCorpus;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilter;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.snowball.SnowballFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the stem filters alone over a {@link PreTokenizedCorpus}, one document per operation.
+ * <p>Without <code>-p corpus=file.bin</code> a corpus of {@link #TOKENS} tokens is generated by
+ * {@link CorpusGenerator} with its default seed and exponent. The <code>tokens</code> counter gives tokens/s.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CorpusStemBenchmark {
+    static final int TOKENS = 1 << 20;
+
+    @Param({"AGRESSIVE", "LIGHT", "HELEBRAND", "HELEBRAND_TRIE"})
+    public ChainAnalyzer.StemmerImpl stemmer;
+
+    /**
+     * Binary corpus written by {@link CorpusGenerator}, empty for a generated one
+     */
+    @Param({""})
+    public String corpus;
+
+    private PreTokenizedCorpus documents;
+    private CorpusTokenStream source;
+    private TokenStream stream;
+    private CharTermAttribute term;
+    private int next;
+
+    /**
+     * Tokens stemmed, reported per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class Counters {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        if (corpus.isEmpty()) {
+            documents = new CorpusGenerator(CorpusGenerator.DEFAULT_SEED, CorpusGenerator.DEFAULT_EXPONENT)
+                    .generate(TOKENS, CorpusGenerator.DEFAULT_DOCUMENT_TOKENS);
+        } else {
+            documents = PreTokenizedCorpus.read(new File(corpus));
+        }
+        source = new CorpusTokenStream(documents);
+        switch (stemmer) {
+            case AGRESSIVE:
+                stream = new CzechStemFilter(source, new CzechAgressiveCharStemmer());
+                break;
+            case LIGHT:
+                stream = new CzechStemFilter(source, new CzechLightCharStemmer());
+                break;
+            case HELEBRAND:
+                stream = new SnowballFilter(source, "CzechHelebrand");
+                break;
+            case HELEBRAND_TRIE:
+                stream = new CzechHelebrandStemFilter(source);
+                break;
+        }
+        term = stream.getAttribute(CharTermAttribute.class);
+        next = 0;
+    }
+
+    @Benchmark
+    public int stem(Counters counters) throws IOException {
+        source.setDocuments(next, next + 1);
+        next = next + 1 == documents.getDocumentCount() ? 0 : next + 1;
+        int tokens = 0;
+        int chars = 0;
+        stream.reset();
+        while (stream.incrementToken()) {
+            tokens++;
+            chars += term.length();
+        }
+        stream.end();
+        counters.tokens += tokens;
+        return chars;
+    }
+}
@@ -0,0 +1,138 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import java.util.Random;
+
+/**
+ * Deterministic lists of Czech looking words for the benchmarks.
+ * <p>Words are made of an optional prefix, a root and, for {@link Suffix#HIT}, an inflectional
+ * or derivational ending the stemmers remove. {@link Suffix#MISS} words end with the bare root,
+ * so the stemmers only look at the end of the word and leave it alone.</p>
+ */
+public final class CzechWords {
+    /**
+     * Length bucket of the generated words
+     */
+    public enum Length {
+        SHORT(2, 5),
+        MEDIUM(6, 9),
+        LONG(10, 16);
+
+        final int min;
+        final int max;
+
+        Length(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /**
+     * Whether the words end with a suffix the stemmers remove
+     */
+    public enum Suffix {
+        HIT,
+        MISS
+    }
+
+    private static final String[] PREFIXES = {
+            "", "", "", "", "po", "pro", "p\u0159e", "p\u0159i", "roz", "vy", "za", "nej", "ne", "od", "u"
+    };
+    private static final String[] ROOTS = {
+            "hrad", "most", "p\u00e1n", "mu\u017e", "\u017een", "kost", "soud", "kluk", "knih", "m\u011bst", "les", "strom",
+            "n\u00e1rod", "u\u010ditel", "student", "d\u016fm", "st\u00e1t", "z\u00e1kon", "\u0161kol", "vlak", "cest", "obchod",
+            "hospod", "chlap", "kab\u00e1t", "domov", "slov", "\u010das", "sv\u011bt", "lid", "rok", "den",
+            "vod", "zem", "pr\u00e1c", "ot\u00e1z", "vl\u00e1d", "m\u00edst", "jazyk", "vztah", "v\u00fdzkum", "pohled",
+            "okn", "dve\u0159", "st\u016fl", "ruk", "noh", "hlav", "srdc", "krev", "v\u00edl", "pta\u010d", "kamen",
+            "ml", "sad", "led", "sn\u00edh", "v\u00edtr", "ohe\u0148", "p\u00edsn", "tanec", "hudb", "obraz", "zvuk"
+    };
+    private static final String[] ENDINGS = {
+            "a", "e", "i", "o", "u", "y", "\u00e1", "\u00e9", "\u00ed", "\u00fd", "\u011b", "\u016f",
+            "em", "em", "ou", "ou", "\u016fm", "ech", "\u00e1ch", "\u00edch", "ami", "emi", "ov\u00e9", "ovi",
+            "\u00e9ho", "\u00e9mu", "\u00fdch", "\u00fdm", "\u00edmi", "\u00fdmi", "ov\u00e1n\u00ed", "ovat", "ovan\u00fd",
+            "ek", "ka", "i\u010dka", "\u00ed\u010dek", "ost", "nost", "n\u00edk", "itel", "ej\u0161\u00ed", "\u011bj\u0161\u00ed", "\u0161t\u011b"
+    };
+
+    /**
+     * Frequent words of Czech text, all of them in the stopword list of Lucene's Czech analyzer
+     */
+    private static final String[] STOPWORDS = {
+            "a", "v", "se", "na", "je", "co", "to", "s", "z", "do", "o", "k", "i", "jako", "ale", "by",
+            "jeho", "pro", "tak", "po", "jsou", "jak", "jsem", "od", "tak\u00e9", "ve", "ze", "u\u017e", "kter\u00fd"
+    };
+    /**
+     * Share of stopwords in the generated text, in percent
+     */
+    private static final int STOPWORD_PERCENT = 30;
+
+    private CzechWords() {
+    }
+
+    /**
+     * @param count number of words, a power of two so benchmarks can cycle with a mask
+     * @param seed seed of the generator, the same arguments always give the same list
+     * @return lowercase words of the length bucket and suffix class
+     */
+    public static String[] generate(Length length, Suffix suffix, int count, long seed) {
+        Random random = new Random(seed);
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word;
+            do {
+                StringBuilder sb = new StringBuilder();
+                sb.append(PREFIXES[random.nextInt(PREFIXES.length)]);
+                if (length == Length.LONG) {
+                    sb.append(PREFIXES[random.nextInt(PREFIXES.length)]);
+                }
+                sb.append(ROOTS[random.nextInt(ROOTS.length)]);
+                if (suffix == Suffix.HIT) {
+                    sb.append(ENDINGS[random.nextInt(ENDINGS.length)]);
+                }
+                word = sb.toString();
+            } while (word.length() < length.min || word.length() > length.max);
+            words[i] = word;
+        }
+        return words;
+    }
+
+    /**
+     * Generates sentences of the words of all length buckets and suffix classes, stopwords,
+     * commas and paragraphs, so the whole analyzer chain has some work.
+     * @param chars minimal length of the text
+     * @param seed seed of the generator, the same arguments always give the same text
+     * @return text of at least the given length
+     */
+    public static String text(int chars, long seed) {
+        Random random = new Random(seed);
+        String[][] lists = new String[Length.values().length * Suffix.values().length][];
+        int l = 0;
+        for (Length length : Length.values()) {
+            for (Suffix suffix : Suffix.values()) {
+                lists[l] = generate(length, suffix, 1024, seed + l);
+                l++;
+            }
+        }
+        StringBuilder sb = new StringBuilder(chars + 128);
+        while (sb.length() < chars) {
+            int sentence = 4 + random.nextInt(16);
+            for (int w = 0; w < sentence; w++) {
+                String word;
+                if (random.nextInt(100) < STOPWORD_PERCENT) {
+                    word = STOPWORDS[random.nextInt(STOPWORDS.length)];
+                } else {
+                    String[] list = lists[random.nextInt(lists.length)];
+                    word = list[random.nextInt(list.length)];
+                }
+                if (w == 0) {
+                    sb.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                } else {
+                    sb.append(' ').append(word);
+                    if (w < sentence - 1 && random.nextInt(8) == 0) {
+                        sb.append(',');
+                    }
+                }
+            }
+            sb.append(random.nextInt(6) == 0 ? ".\n" : ". ");
+        }
+        return sb.toString();
+    }
+}
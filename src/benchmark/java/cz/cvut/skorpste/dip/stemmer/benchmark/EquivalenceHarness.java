@@ -0,0 +1,326 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.CorpusGenerator;
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.PreTokenizedCorpus;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechStemmer;
+import org.tartarus.snowball.SnowballProgram;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the stems of a reference stemmer and of an optimised one over a large number of inputs.
+ * <pre>
+ * java [-Dcandidate=class] -cp target/benchmarks.jar cz.cvut.skorpste.dip.stemmer.benchmark.EquivalenceHarness light|agressive|helebrand [inputs [threads [seed]]]
+ * </pre>
+ * <p>The references are the original {@link Reference} implementations, the candidate is by default
+ * the optimised stemmer we ship, any {@link CzechStemmer}, {@link CzechCharStemmer} or
+ * {@link SnowballProgram} can be given instead. Half of the inputs are words of a corpus of
+ * {@link CorpusGenerator}, some of them with random chars added to either end and some upper cased,
+ * capitalised or in mixed case, the other half are random strings of the {@link #ALPHABET}.</p>
+ * <p>A {@link CzechCharStemmer} lowercases in place, so it keeps the length of a word which
+ * {@link String#toLowerCase()} changes, e.g. the dotted capital I (U+0130) outside Turkish locales.
+ * Against a {@link CzechStemmer} such inputs are skipped and only counted. The default locale
+ * can be set by <code>-Duser.language</code>.</p>
+ * <p>The inputs are split to chunks of {@link #CHUNK} inputs, each generated from its own seed, which
+ * the threads take in order. The divergence with the lowest index is reported together with
+ * the input shortened as long as the stemmers still differ on it. The same arguments always find
+ * the same divergence, whatever the number of threads.</p>
+ */
+public final class EquivalenceHarness {
+    static final int CHUNK = 1 << 20;
+    static final long DEFAULT_INPUTS = 200000000L;
+    static final long DEFAULT_SEED = 42;
+    static final int CORPUS_TOKENS = 1 << 20;
+    static final int MAX_RANDOM_LENGTH = 16;
+    static final String CZECH = "abcdefghijklmnopqrstuvwxyz\u00e1\u010d\u010f\u00e9\u011b\u00ed\u0148\u00f3\u0159\u0161\u0165\u00fa\u016f\u00fd\u017e";
+    /**
+     * Czech letters in both cases and some letters of other languages, with the ones whose
+     * lowercase depends on the locale or the context: dotted and dotless I, capital sigma, German sharp s
+     */
+    static final String ALPHABET = CZECH + CZECH.toUpperCase(Locale.ROOT)
+            + "\u0130\u0131\u03a3\u03c3\u00df\u00e4\u00f6\u00fc\u0142\u0141\u00c5\u00f8";
+    /**
+     * Chars a Snowball stemmer may add to the word, the buffer of an in place stemmer is this much longer
+     */
+    static final int GROWTH = 8;
+
+    private EquivalenceHarness() {
+    }
+
+    /**
+     * Original stemmers and the optimised ones checked against them by default
+     */
+    public enum Reference {
+        LIGHT("cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightStemmer",
+                "cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer"),
+        AGRESSIVE("cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveStemmer",
+                "cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer"),
+        HELEBRAND("org.tartarus.snowball.ext.CzechHelebrandStemmer",
+                "org.tartarus.snowball.ext.CzechHelebrandTrieStemmer");
+
+        final String reference;
+        final String candidate;
+
+        Reference(String reference, String candidate) {
+            this.reference = reference;
+            this.candidate = candidate;
+        }
+    }
+
+    /**
+     * Stemmer of one thread, an exception is returned as the stem
+     */
+    interface Engine {
+        String stem(String word);
+    }
+
+    /**
+     * Creates an engine of a stemmer class, a Snowball reference is given a String
+     * and a Snowball candidate a char buffer, as by the filters using them
+     */
+    static Engine createEngine(String className, boolean reference) {
+        final Object stemmer;
+        try {
+            stemmer = Class.forName(className).newInstance();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Can not instantiate stemmer " + className, e);
+        }
+        if (stemmer instanceof CzechStemmer) {
+            return new Engine() {
+                public String stem(String word) {
+                    return ((CzechStemmer) stemmer).stem(word);
+                }
+            };
+        }
+        if (stemmer instanceof CzechCharStemmer) {
+            return new Engine() {
+                private char[] buffer = new char[64];
+
+                public String stem(String word) {
+                    buffer = fill(buffer, word);
+                    return new String(buffer, 0, ((CzechCharStemmer) stemmer).stem(buffer, word.length()));
+                }
+            };
+        }
+        if (stemmer instanceof SnowballProgram && reference) {
+            return new Engine() {
+                public String stem(String word) {
+                    SnowballProgram program = (SnowballProgram) stemmer;
+                    program.setCurrent(word);
+                    program.stem();
+                    return program.getCurrent();
+                }
+            };
+        }
+        if (stemmer instanceof SnowballProgram) {
+            return new Engine() {
+                private char[] buffer = new char[64];
+
+                public String stem(String word) {
+                    SnowballProgram program = (SnowballProgram) stemmer;
+                    buffer = fill(buffer, word);
+                    program.setCurrent(buffer, word.length());
+                    program.stem();
+                    return new String(program.getCurrentBuffer(), 0, program.getCurrentBufferLength());
+                }
+            };
+        }
+        throw new IllegalArgumentException("Not a stemmer: " + className);
+    }
+
+    private static char[] fill(char[] buffer, String word) {
+        if (buffer.length < word.length() + GROWTH) {
+            buffer = new char[word.length() + GROWTH];
+        }
+        word.getChars(0, word.length(), buffer, 0);
+        return buffer;
+    }
+
+    private static String stem(Engine engine, String word) {
+        try {
+            return engine.stem(word);
+        } catch (RuntimeException e) {
+            return "exception " + e;
+        }
+    }
+
+    /**
+     * @return the i-th input of a chunk, inputs of a chunk are generated in order from its random
+     */
+    static String input(Random random, PreTokenizedCorpus corpus) {
+        StringBuilder sb = new StringBuilder();
+        if (random.nextBoolean()) {
+            char[] form = corpus.getForm(corpus.getToken(random.nextInt(corpus.getTokenCount())));
+            switch (random.nextInt(8)) {
+                case 0:
+                    appendRandom(sb, random, 1 + random.nextInt(3));
+                    sb.append(form);
+                    break;
+                case 1:
+                    sb.append(form);
+                    appendRandom(sb, random, 1 + random.nextInt(3));
+                    break;
+                case 2:
+                    for (char c : form) {
+                        sb.append(Character.toUpperCase(c));
+                    }
+                    break;
+                case 3:
+                    sb.append(form);
+                    if (sb.length() > 0) {
+                        sb.setCharAt(0, Character.toUpperCase(sb.charAt(0)));
+                    }
+                    break;
+                case 4:
+                    for (char c : form) {
+                        sb.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+                    }
+                    break;
+                default:
+                    sb.append(form);
+                    break;
+            }
+        } else {
+            appendRandom(sb, random, 1 + random.nextInt(MAX_RANDOM_LENGTH));
+        }
+        return sb.toString();
+    }
+
+    private static void appendRandom(StringBuilder sb, Random random, int length) {
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+    }
+
+    /**
+     * @return true if the input is compared, false if it is one of the documented divergences
+     * of a {@link CzechCharStemmer} candidate
+     */
+    static boolean isComparable(String word, boolean keepsLength) {
+        return !keepsLength || word.toLowerCase().length() == word.length();
+    }
+
+    /**
+     * Removes chars of the input as long as the stemmers still differ on it
+     */
+    static String minimise(String word, Engine reference, Engine candidate) {
+        boolean shorter = true;
+        while (shorter) {
+            shorter = false;
+            for (int i = 0; i < word.length() && !shorter; i++) {
+                String next = word.substring(0, i) + word.substring(i + 1);
+                if (!stem(reference, next).equals(stem(candidate, next))) {
+                    word = next;
+                    shorter = true;
+                }
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Divergence with the lowest index found so far
+     */
+    private static final class Divergence {
+        private final AtomicLong index = new AtomicLong(Long.MAX_VALUE);
+        private String input;
+
+        long get() {
+            return index.get();
+        }
+
+        synchronized void record(long i, String word) {
+            if (i < index.get()) {
+                input = word;
+                index.set(i);
+            }
+        }
+
+        synchronized String getInput() {
+            return input;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: EquivalenceHarness light|agressive|helebrand [inputs [threads [seed]]]");
+            System.exit(2);
+        }
+        final Reference reference = Reference.valueOf(args[0].toUpperCase(Locale.ROOT));
+        final String candidate = System.getProperty("candidate", reference.candidate);
+        final long inputs = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_INPUTS;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        final long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+
+        final PreTokenizedCorpus corpus = new CorpusGenerator(seed, CorpusGenerator.DEFAULT_EXPONENT)
+                .generate(CORPUS_TOKENS, CorpusGenerator.DEFAULT_DOCUMENT_TOKENS);
+        final AtomicLong nextChunk = new AtomicLong();
+        final AtomicLong compared = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final boolean keepsLength = CzechStemmer.class.isAssignableFrom(Class.forName(reference.reference))
+                && CzechCharStemmer.class.isAssignableFrom(Class.forName(candidate));
+        final Divergence divergence = new Divergence();
+
+        System.out.printf("%s: %s against %s, %d inputs, %d threads%n", reference, candidate, reference.reference,
+                inputs, threads);
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(new Runnable() {
+                public void run() {
+                    Engine expected = createEngine(reference.reference, true);
+                    Engine actual = createEngine(candidate, false);
+                    while (true) {
+                        long chunk = nextChunk.getAndIncrement();
+                        long first = chunk * CHUNK;
+                        if (first >= inputs || first > divergence.get()) {
+                            return;
+                        }
+                        long end = Math.min(first + CHUNK, inputs);
+                        Random random = new Random(seed * 1000003 + chunk);
+                        long i = first;
+                        long skippedInChunk = 0;
+                        for (; i < end && i < divergence.get(); i++) {
+                            String word = input(random, corpus);
+                            if (!isComparable(word, keepsLength)) {
+                                skippedInChunk++;
+                            } else if (!stem(expected, word).equals(stem(actual, word))) {
+                                divergence.record(i, word);
+                                break;
+                            }
+                        }
+                        compared.addAndGet(i - first - skippedInChunk);
+                        skipped.addAndGet(skippedInChunk);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        while (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+            System.out.printf("%d inputs compared%n", compared.get());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (divergence.get() == Long.MAX_VALUE) {
+            System.out.printf("%d inputs in %.1f s, no divergence, %d inputs whose lowercase changes the length skipped%n",
+                    compared.get(), seconds, skipped.get());
+            return;
+        }
+        Engine expected = createEngine(reference.reference, true);
+        Engine actual = createEngine(candidate, false);
+        String input = divergence.getInput();
+        String minimal = minimise(input, expected, actual);
+        System.out.printf("%d inputs in %.1f s, first divergence at input %d%n", compared.get(), seconds, divergence.get());
+        System.out.printf("  input   \"%s\": \"%s\" expected, \"%s\" found%n", input,
+                stem(expected, input), stem(actual, input));
+        System.out.printf("  minimal \"%s\": \"%s\" expected, \"%s\" found%n", minimal,
+                stem(expected, minimal), stem(actual, minimal));
+        System.exit(1);
+    }
+}
@@ -0,0 +1,285 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilterFactory;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.KeywordTokenizer;
+import org.apache.lucene.analysis.snowball.SnowballPorterFilterFactory;
+import org.apache.lucene.analysis.util.ClasspathResourceLoader;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retained heap of the filter factories and of the filters they create, and the one time cost
+ * of loading and initialising the Helebrand stemmer classes, scaled to 1000 cores.
+ * <pre>
+ * mvn -P benchmark package
+ * java -Xmx4g -XX:+UseSerialGC -cp target/benchmarks.jar cz.cvut.skorpste.dip.stemmer.benchmark.FootprintBenchmark [fieldTypes [threads]]
+ * </pre>
+ * <p>Heap is measured as the difference of the used heap, after full collections, before and after
+ * {@link #INSTANCES} instances are created and kept reachable. A filter is measured together with
+ * its tokenizer, less the tokenizer alone. Every core is assumed to declare <code>fieldTypes</code>
+ * Czech field types (24 by default) and to keep a chain of every field type for each of
+ * <code>threads</code> indexing threads (1 by default).</p>
+ * <p>The stemmer classes are loaded {@link #CLASS_LOADS} times, each time by a new class loader as
+ * by the resource loaders of cores with their own <code>lib</code> directory, and initialised with
+ * the static Among tables.</p>
+ */
+public final class FootprintBenchmark {
+    static final int INSTANCES = 10000;
+    static final int CLASS_LOADS = 50;
+    static final int CORES = 1000;
+    static final int DEFAULT_FIELD_TYPES = 24;
+    static final int DEFAULT_THREADS = 1;
+
+    private static final String[] STEMMER_CLASSES = {
+            "org.tartarus.snowball.ext.CzechHelebrandStemmer",
+            "org.tartarus.snowball.ext.CzechHelebrandTrieStemmer"
+    };
+
+    /**
+     * Classes loaded by every {@link IsolatingClassLoader}, the stemmers share a package private trie
+     */
+    private static final String[] ISOLATED_CLASSES = {
+            "org.tartarus.snowball.ext.CzechHelebrand",
+            "org.tartarus.snowball.ext.AmongTrie"
+    };
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private FootprintBenchmark() {
+    }
+
+    /**
+     * Factory of one field type
+     */
+    private interface FactoryConfig {
+        String name();
+
+        TokenFilterFactory create() throws IOException;
+    }
+
+    /**
+     * Loads the {@link #ISOLATED_CLASSES} itself, the rest from the parent
+     */
+    private static final class IsolatingClassLoader extends ClassLoader {
+        IsolatingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private static boolean isolated(String name) {
+            for (String prefix : ISOLATED_CLASSES) {
+                if (name.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isolated(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    byte[] bytes = readClass(name);
+                    c = defineClass(name, bytes, 0, bytes.length);
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+
+        private byte[] readClass(String name) throws ClassNotFoundException {
+            InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class");
+            if (in == null) {
+                throw new ClassNotFoundException(name);
+            }
+            try {
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, read);
+                    }
+                    return out.toByteArray();
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+
+    /**
+     * @return used heap after the collector has nothing more to free
+     */
+    static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long now = MEMORY.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+
+    private static FactoryConfig czechStem(final String implementation) {
+        return new FactoryConfig() {
+            public String name() {
+                return "CzechStemFilterFactory " + implementation;
+            }
+
+            public TokenFilterFactory create() throws IOException {
+                Map<String, String> args = new HashMap<String, String>();
+                args.put("implementation", implementation);
+                CzechStemFilterFactory factory = new CzechStemFilterFactory(args);
+                factory.inform(new ClasspathResourceLoader(FootprintBenchmark.class));
+                return factory;
+            }
+        };
+    }
+
+    private static FactoryConfig snowball(final String language) {
+        return new FactoryConfig() {
+            public String name() {
+                return "SnowballPorterFilterFactory " + language;
+            }
+
+            public TokenFilterFactory create() throws IOException {
+                Map<String, String> args = new HashMap<String, String>();
+                args.put("language", language);
+                SnowballPorterFilterFactory factory = new SnowballPorterFilterFactory(args);
+                factory.inform(new ClasspathResourceLoader(FootprintBenchmark.class));
+                return factory;
+            }
+        };
+    }
+
+    private static FactoryConfig helebrandStem() {
+        return new FactoryConfig() {
+            public String name() {
+                return "CzechHelebrandStemFilterFactory";
+            }
+
+            public TokenFilterFactory create() {
+                return new CzechHelebrandStemFilterFactory(new HashMap<String, String>());
+            }
+        };
+    }
+
+    private static TokenStream tokenizer() {
+        return new KeywordTokenizer(new StringReader(""));
+    }
+
+    /**
+     * @return retained bytes of one factory
+     */
+    static long factoryBytes(FactoryConfig config) throws IOException {
+        config.create();
+        List<TokenFilterFactory> factories = new ArrayList<TokenFilterFactory>(INSTANCES);
+        long before = usedHeap();
+        for (int i = 0; i < INSTANCES; i++) {
+            factories.add(config.create());
+        }
+        long after = usedHeap();
+        if (factories.size() != INSTANCES) {
+            throw new AssertionError();
+        }
+        return (after - before) / INSTANCES;
+    }
+
+    /**
+     * @return retained bytes of a filter, without its tokenizer
+     */
+    static long filterBytes(FactoryConfig config) throws IOException {
+        TokenFilterFactory factory = config.create();
+        factory.create(tokenizer());
+        List<TokenStream> streams = new ArrayList<TokenStream>(INSTANCES);
+        long before = usedHeap();
+        for (int i = 0; i < INSTANCES; i++) {
+            streams.add(tokenizer());
+        }
+        long tokenizers = usedHeap();
+        streams.clear();
+        long cleared = usedHeap();
+        for (int i = 0; i < INSTANCES; i++) {
+            streams.add(factory.create(tokenizer()));
+        }
+        long filters = usedHeap();
+        if (streams.size() != INSTANCES) {
+            throw new AssertionError();
+        }
+        return ((filters - cleared) - (tokenizers - before)) / INSTANCES;
+    }
+
+    private static String perCores(long bytes) {
+        return String.format("%.1f MB", bytes * (double) CORES / (1 << 20));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int fieldTypes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FIELD_TYPES;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_THREADS;
+        System.out.printf("%d cores, %d field types, %d threads%n", CORES, fieldTypes, threads);
+
+        // before the factories, which load the stemmer classes into the application class loader
+        ClassLoader parent = FootprintBenchmark.class.getClassLoader();
+        for (String className : STEMMER_CLASSES) {
+            Class.forName(className, true, new IsolatingClassLoader(parent));
+            List<Class<?>> classes = new ArrayList<Class<?>>(CLASS_LOADS);
+            long nanos = 0;
+            long before = usedHeap();
+            for (int i = 0; i < CLASS_LOADS; i++) {
+                // the trie stemmer loads its own copy of the stemmer it extends
+                ClassLoader loader = new IsolatingClassLoader(parent);
+                long start = System.nanoTime();
+                classes.add(Class.forName(className, true, loader));
+                nanos += System.nanoTime() - start;
+            }
+            long bytes = (usedHeap() - before) / CLASS_LOADS;
+            System.out.printf("load %-50s %8.2f ms %10d bytes, per %d cores %s%n", className,
+                    nanos / 1e6 / CLASS_LOADS, bytes, CORES, perCores(bytes));
+            if (classes.size() != CLASS_LOADS) {
+                throw new AssertionError();
+            }
+        }
+
+        FactoryConfig[] configs = {
+                czechStem("Light"),
+                czechStem("Agressive"),
+                snowball("CzechHelebrand"),
+                snowball("CzechHelebrandTrie"),
+                helebrandStem()
+        };
+        for (FactoryConfig config : configs) {
+            long factory = factoryBytes(config);
+            long filter = filterBytes(config);
+            System.out.printf("%-45s factory %8d bytes, filter %8d bytes, per %d cores %s%n", config.name(),
+                    factory, filter, CORES, perCores(fieldTypes * (factory + threads * filter)));
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Indexes a fixed corpus with {@link ChainAnalyzer} for every {@link ChainAnalyzer.StemmerImpl}
+ * into an {@link MMapDirectory} and a {@link RAMDirectory}, without Solr.
+ * <p>Reports docs/s of adding the documents and committing, the time spent in the analyzer
+ * while indexing, the number of unique terms, the size of the terms dictionary
+ * (<code>.tim</code> and <code>.tip</code> files) and of the whole index after merging
+ * to a single segment, and the time of all segment merges.</p>
+ * <pre>
+ * mvn -P benchmark package
+ * java -cp target/benchmarks.jar cz.cvut.skorpste.dip.stemmer.benchmark.IndexingBenchmark [corpus [rounds]]
+ * </pre>
+ * <p>The corpus is a UTF-8 text file with a document per line or a directory of such files,
+ * without it the text of {@link CzechWords#text(int, long)} is indexed in documents of
+ * {@link #DOCUMENT_CHARS} chars. Every configuration is indexed once to warm up and then
+ * <code>rounds</code> times, the averages are printed.</p>
+ */
+public final class IndexingBenchmark {
+    static final String FIELD = "text";
+    static final int TEXT_CHARS = 32 << 20;
+    static final int DOCUMENT_CHARS = 2000;
+    static final int DEFAULT_ROUNDS = 3;
+
+    private static final Version VERSION = Version.LUCENE_4_10_0;
+
+    private IndexingBenchmark() {
+    }
+
+    /**
+     * Measurements of one indexing run
+     */
+    static final class Stats {
+        long indexNanos;
+        long analysisNanos;
+        long mergeNanos;
+        long uniqueTerms;
+        long termsBytes;
+        long indexBytes;
+
+        void add(Stats other) {
+            indexNanos += other.indexNanos;
+            analysisNanos += other.analysisNanos;
+            mergeNanos += other.mergeNanos;
+            uniqueTerms += other.uniqueTerms;
+            termsBytes += other.termsBytes;
+            indexBytes += other.indexBytes;
+        }
+    }
+
+    /**
+     * Adds the time spent in the wrapped chain to a counter
+     */
+    private static final class TimingAnalyzer extends AnalyzerWrapper {
+        private final Analyzer analyzer;
+        long nanos;
+
+        TimingAnalyzer(Analyzer analyzer) {
+            super(PER_FIELD_REUSE_STRATEGY);
+            this.analyzer = analyzer;
+        }
+
+        @Override
+        protected Analyzer getWrappedAnalyzer(String fieldName) {
+            return analyzer;
+        }
+
+        @Override
+        protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+            return new TokenStreamComponents(components.getTokenizer(), new TimingFilter(components.getTokenStream()));
+        }
+
+        private final class TimingFilter extends TokenFilter {
+            TimingFilter(TokenStream input) {
+                super(input);
+            }
+
+            @Override
+            public boolean incrementToken() throws IOException {
+                long start = System.nanoTime();
+                boolean result = input.incrementToken();
+                nanos += System.nanoTime() - start;
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Adds the time of every merge to a counter, merges run in the background while indexing
+     */
+    private static final class TimingMergeScheduler extends ConcurrentMergeScheduler {
+        final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        protected void doMerge(MergePolicy.OneMerge merge) throws IOException {
+            long start = System.nanoTime();
+            try {
+                super.doMerge(merge);
+            } finally {
+                nanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+    }
+
+    static List<String> readCorpus(File corpus) throws IOException {
+        List<String> documents = new ArrayList<String>();
+        File[] files = corpus.isDirectory() ? corpus.listFiles() : new File[] { corpus };
+        Arrays.sort(files);
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        documents.add(line);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return documents;
+    }
+
+    static List<String> generateCorpus() {
+        return Arrays.asList(AnalyzerChainBenchmark.split(CzechWords.text(TEXT_CHARS, 42), DOCUMENT_CHARS));
+    }
+
+    /**
+     * Indexes the documents, merges the index to one segment and measures it
+     */
+    static Stats index(List<String> documents, ChainAnalyzer.StemmerImpl si, Directory directory) throws IOException {
+        TimingAnalyzer analyzer = new TimingAnalyzer(new ChainAnalyzer(si));
+        TimingMergeScheduler scheduler = new TimingMergeScheduler();
+        IndexWriterConfig config = new IndexWriterConfig(VERSION, analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        config.setMergeScheduler(scheduler);
+        Stats stats = new Stats();
+
+        IndexWriter writer = new IndexWriter(directory, config);
+        try {
+            Document document = new Document();
+            Field field = new TextField(FIELD, "", Field.Store.NO);
+            document.add(field);
+            long start = System.nanoTime();
+            for (String text : documents) {
+                field.setStringValue(text);
+                writer.addDocument(document);
+            }
+            writer.commit();
+            stats.indexNanos = System.nanoTime() - start;
+            stats.analysisNanos = analyzer.nanos;
+            writer.forceMerge(1);
+            writer.commit();
+        } finally {
+            writer.close();
+        }
+        stats.mergeNanos = scheduler.nanos.get();
+
+        DirectoryReader reader = DirectoryReader.open(directory);
+        try {
+            Terms terms = MultiFields.getTerms(reader, FIELD);
+            stats.uniqueTerms = terms == null ? 0 : terms.size();
+        } finally {
+            reader.close();
+        }
+        for (String file : directory.listAll()) {
+            long length = directory.fileLength(file);
+            stats.indexBytes += length;
+            if (file.endsWith(".tim") || file.endsWith(".tip")) {
+                stats.termsBytes += length;
+            }
+        }
+        return stats;
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+        file.delete();
+    }
+
+    private static Stats run(List<String> documents, ChainAnalyzer.StemmerImpl si, boolean mmap) throws IOException {
+        if (!mmap) {
+            RAMDirectory directory = new RAMDirectory();
+            try {
+                return index(documents, si, directory);
+            } finally {
+                directory.close();
+            }
+        }
+        File path = Files.createTempDirectory("indexing-benchmark").toFile();
+        try {
+            Directory directory = new MMapDirectory(path);
+            try {
+                return index(documents, si, directory);
+            } finally {
+                directory.close();
+            }
+        } finally {
+            delete(path);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> documents = args.length > 0 ? readCorpus(new File(args[0])) : generateCorpus();
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+        long chars = 0;
+        for (String document : documents) {
+            chars += document.length();
+        }
+        System.out.printf("%d documents, %d chars, %d rounds%n", documents.size(), chars, rounds);
+        System.out.printf("%-15s %-5s %10s %12s %10s %12s %12s %12s%n",
+                "stemmer", "dir", "docs/s", "analysis ms", "merge ms", "terms", "terms bytes", "index bytes");
+        for (ChainAnalyzer.StemmerImpl si : ChainAnalyzer.StemmerImpl.values()) {
+            for (boolean mmap : new boolean[] { true, false }) {
+                run(documents, si, mmap);
+                Stats total = new Stats();
+                for (int r = 0; r < rounds; r++) {
+                    total.add(run(documents, si, mmap));
+                }
+                System.out.printf("%-15s %-5s %10.0f %12.1f %10.1f %12d %12d %12d%n",
+                        si, mmap ? "mmap" : "ram",
+                        documents.size() * 1e9 * rounds / total.indexNanos,
+                        total.analysisNanos / 1e6 / rounds,
+                        total.mergeNanos / 1e6 / rounds,
+                        total.uniqueTerms / rounds,
+                        total.termsBytes / rounds,
+                        total.indexBytes / rounds);
+            }
+        }
+    }
+}
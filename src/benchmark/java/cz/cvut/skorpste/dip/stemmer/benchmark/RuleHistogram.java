@@ -0,0 +1,98 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.CorpusGenerator;
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.PreTokenizedCorpus;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.RuleProfile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Histograms of the rules of the Light and Agressive stemmers on a corpus.
+ * <pre>
+ * java -cp target/benchmarks.jar cz.cvut.skorpste.dip.stemmer.benchmark.RuleHistogram [corpus.bin|"" [profile.tsv]]
+ * </pre>
+ * <p>Every token of the {@link PreTokenizedCorpus} (a generated one of {@link #TOKENS} tokens if it is missing or empty)
+ * is stemmed by both stemmers with {@link RuleProfile#COLLECT} on. For every table the suffixes are
+ * printed by how often a rule of them fired, with how often the walk tested them.
+ * The profile can be saved and given to <code>CzechStemFilterFactory</code> as <code>ruleProfile</code>.</p>
+ */
+public final class RuleHistogram {
+    static final int TOKENS = 1 << 22;
+    static final int TOP = 20;
+
+    private RuleHistogram() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // before the tables are created, COLLECT is read once
+        System.setProperty("cz.cvut.skorpste.dip.stemmer.ruleProfile.collect", "true");
+        if (!RuleProfile.COLLECT) {
+            System.err.println("Run with -Dcz.cvut.skorpste.dip.stemmer.ruleProfile.collect=true");
+            System.exit(2);
+        }
+        PreTokenizedCorpus corpus = args.length > 0 && !args[0].isEmpty()
+                ? PreTokenizedCorpus.read(new File(args[0]))
+                : new CorpusGenerator(CorpusGenerator.DEFAULT_SEED, CorpusGenerator.DEFAULT_EXPONENT)
+                        .generate(TOKENS, CorpusGenerator.DEFAULT_DOCUMENT_TOKENS);
+
+        CzechCharStemmer[] stemmers = { new CzechLightCharStemmer(), new CzechAgressiveCharStemmer() };
+        char[] buffer = new char[64];
+        for (CzechCharStemmer stemmer : stemmers) {
+            for (int t = 0; t < corpus.getTokenCount(); t++) {
+                char[] form = corpus.getForm(corpus.getToken(t));
+                if (buffer.length < form.length) {
+                    buffer = new char[form.length];
+                }
+                System.arraycopy(form, 0, buffer, 0, form.length);
+                stemmer.stem(buffer, form.length);
+            }
+        }
+
+        final RuleProfile profile = RuleProfile.collected();
+        for (final String table : profile.getTables()) {
+            List<String> suffixes = new ArrayList<String>(profile.getSuffixes(table));
+            Collections.sort(suffixes, new Comparator<String>() {
+                public int compare(String a, String b) {
+                    long fa = profile.getFired(table, a);
+                    long fb = profile.getFired(table, b);
+                    return fa != fb ? (fa > fb ? -1 : 1) : a.compareTo(b);
+                }
+            });
+            long words = profile.getTested(table, "");
+            System.out.printf("%s: %d words, %d unmatched%n", table, words, profile.getFired(table, ""));
+            int shown = 0;
+            for (String suffix : suffixes) {
+                long fired = profile.getFired(table, suffix);
+                if (suffix.isEmpty() || fired == 0) {
+                    continue;
+                }
+                if (shown++ == TOP) {
+                    break;
+                }
+                System.out.printf("  -%-10s %10d fired %6.2f %% %10d tested%n", suffix, fired,
+                        100.0 * fired / words, profile.getTested(table, suffix));
+            }
+        }
+
+        if (args.length > 1) {
+            Writer out = new OutputStreamWriter(new FileOutputStream(args[1]), StandardCharsets.UTF_8);
+            try {
+                profile.write(out);
+            } finally {
+                out.close();
+            }
+            System.out.println("Profile written to " + args[1]);
+        }
+    }
+}
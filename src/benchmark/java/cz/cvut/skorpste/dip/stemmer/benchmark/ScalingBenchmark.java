@@ -0,0 +1,270 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionaryBuilder;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechStemmer;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.cz.CzechAnalyzer;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.ClasspathResourceLoader;
+import org.apache.lucene.analysis.util.FilesystemResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.util.Version;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregate throughput of analysis threads, each with its own chain built by
+ * {@link CzechStemFilterFactory#create(TokenStream)} of one factory, as in Solr.
+ * <p>{@link Sharing} selects what the chains share through the factory: nothing, per stream caches,
+ * the shared heap or off-heap cache or a stem dictionary. Per instance configurations should scale
+ * with the cores, a shared structure which stops scaling has contention or false sharing.
+ * {@link #main(String[])} runs every configuration with 1, 2, 4 ... up to the number of cores
+ * (or <code>-Dthreads=N</code>) threads and prints the scaling efficiency, the throughput divided by
+ * the threads and the single thread throughput. Efficiency below {@link #MIN_EFFICIENCY} is flagged:</p>
+ * <pre>
+ * mvn -P benchmark package
+ * java -Dthreads=16 -cp target/benchmarks.jar cz.cvut.skorpste.dip.stemmer.benchmark.ScalingBenchmark -prof perfnorm
+ * </pre>
+ * <p>Other arguments are JMH options, with <code>-prof perfnorm</code> cache misses per operation which
+ * grow with the threads point to lines written by several cores.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+    static final int TEXT_CHARS = 4 << 20;
+    static final int DOCUMENT_CHARS = 2000;
+    static final double MIN_EFFICIENCY = 0.75;
+    static final String FIELD = "text";
+
+    private static final Version VERSION = Version.LUCENE_4_10_0;
+
+    /**
+     * What the chains of the threads share
+     */
+    public enum Sharing {
+        NONE,
+        STREAM_CACHE,
+        SHARED_CACHE,
+        OFFHEAP_CACHE,
+        DICTIONARY
+    }
+
+    /**
+     * Factory and documents of all threads
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        @Param({"Light", "Agressive"})
+        public String implementation;
+
+        @Param({"NONE", "STREAM_CACHE", "SHARED_CACHE", "OFFHEAP_CACHE", "DICTIONARY"})
+        public Sharing sharing;
+
+        @Param({"100000"})
+        public int cacheSize;
+
+        String[] documents;
+        CzechStemFilterFactory factory;
+        private File directory;
+
+        @Setup
+        public void setUp() throws Exception {
+            String text = CzechWords.text(TEXT_CHARS, 42);
+            documents = AnalyzerChainBenchmark.split(text, DOCUMENT_CHARS);
+
+            Map<String, String> args = new HashMap<String, String>();
+            args.put("implementation", implementation);
+            ResourceLoader loader = new ClasspathResourceLoader(ScalingBenchmark.class);
+            switch (sharing) {
+                case STREAM_CACHE:
+                    args.put("cacheSize", Integer.toString(cacheSize));
+                    args.put("cacheScope", CzechStemFilterFactory.CACHE_SCOPE_STREAM);
+                    break;
+                case SHARED_CACHE:
+                    args.put("cacheSize", Integer.toString(cacheSize));
+                    args.put("cacheScope", CzechStemFilterFactory.CACHE_SCOPE_SHARED);
+                    break;
+                case OFFHEAP_CACHE:
+                    args.put("cacheSize", Integer.toString(cacheSize));
+                    args.put("cacheBackend", CzechStemFilterFactory.CACHE_BACKEND_OFFHEAP);
+                    break;
+                case DICTIONARY:
+                    directory = Files.createTempDirectory("scaling-benchmark").toFile();
+                    writeDictionary(text, new File(directory, "stems.fst"));
+                    args.put("dictionary", "stems.fst");
+                    loader = new FilesystemResourceLoader(directory);
+                    break;
+                default:
+                    break;
+            }
+            factory = new CzechStemFilterFactory(args);
+            factory.inform(loader);
+        }
+
+        private void writeDictionary(String text, File file) throws Exception {
+            CzechStemmer stemmer = (CzechStemmer) Class.forName(
+                    "cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.Czech" + implementation + "Stemmer").newInstance();
+            StemDictionaryBuilder builder = new StemDictionaryBuilder(implementation);
+            builder.addWords(new StringReader(text), stemmer);
+            OutputStream out = new FileOutputStream(file);
+            try {
+                builder.build().write(out);
+            } finally {
+                out.close();
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            if (directory != null) {
+                new File(directory, "stems.fst").delete();
+                directory.delete();
+            }
+        }
+    }
+
+    /**
+     * Analyzer of one thread, which starts at its own place in the documents
+     */
+    @State(Scope.Thread)
+    public static class Chain {
+        Analyzer analyzer;
+        int next;
+
+        @Setup
+        public void setUp(final Shared shared, ThreadParams thread) {
+            analyzer = new Analyzer() {
+                @Override
+                protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+                    StandardTokenizer source = new StandardTokenizer(VERSION, reader);
+                    TokenStream result = new LowerCaseFilter(VERSION, source);
+                    result = new StopFilter(VERSION, result, CzechAnalyzer.getDefaultStopSet());
+                    return new TokenStreamComponents(source, shared.factory.create(result));
+                }
+            };
+            next = (int) ((long) shared.documents.length * thread.getThreadIndex() / thread.getThreadCount());
+        }
+    }
+
+    /**
+     * Tokens analyzed by the thread, reported per second and summed over the threads
+     */
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class Counters {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+
+    @Benchmark
+    public int analyze(Shared shared, Chain chain, Counters counters) throws IOException {
+        String document = shared.documents[chain.next];
+        chain.next = chain.next + 1 == shared.documents.length ? 0 : chain.next + 1;
+        TokenStream stream = chain.analyzer.tokenStream(FIELD, document);
+        CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+        int tokens = 0;
+        int chars = 0;
+        try {
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens++;
+                chars += term.length();
+            }
+            stream.end();
+        } finally {
+            stream.close();
+        }
+        counters.tokens += tokens;
+        return chars;
+    }
+
+    /**
+     * Runs the benchmark with growing thread counts and prints tokens/s and the scaling efficiency
+     * of every configuration.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        int cores = Integer.getInteger("threads", Runtime.getRuntime().availableProcessors());
+        List<Integer> threadCounts = new ArrayList<Integer>();
+        for (int t = 1; t < cores; t *= 2) {
+            threadCounts.add(t);
+        }
+        threadCounts.add(cores);
+
+        // configuration -> threads -> tokens/s
+        Map<String, Map<Integer, Double>> scaling = new TreeMap<String, Map<Integer, Double>>();
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .include(ScalingBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            for (RunResult result : new Runner(options).run()) {
+                String configuration = "implementation=" + result.getParams().getParam("implementation")
+                        + " sharing=" + result.getParams().getParam("sharing");
+                Map<Integer, Double> tokens = scaling.get(configuration);
+                if (tokens == null) {
+                    tokens = new TreeMap<Integer, Double>();
+                    scaling.put(configuration, tokens);
+                }
+                tokens.put(threads, result.getSecondaryResults().get("tokens").getScore());
+            }
+        }
+
+        for (Map.Entry<String, Map<Integer, Double>> configuration : scaling.entrySet()) {
+            System.out.println(configuration.getKey());
+            Double single = configuration.getValue().get(1);
+            for (Map.Entry<Integer, Double> tokens : configuration.getValue().entrySet()) {
+                double efficiency = tokens.getValue() / (tokens.getKey() * single);
+                System.out.printf("  %3d threads %14.0f tokens/s %6.2f%s%n", tokens.getKey(), tokens.getValue(),
+                        efficiency, efficiency < MIN_EFFICIENCY ? "  CONTENTION" : "");
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.CorpusGenerator;
+import cz.cvut.skorpste.dip.stemmer.benchmark.corpus.PreTokenizedCorpus;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.RuleProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of every stage of {@link CzechAgressiveCharStemmer}.
+ * <p>The stemmer runs the stages of {@link #MASKS}, each adding the next stage to the previous one,
+ * over the tokens of a {@link PreTokenizedCorpus}, one token per operation. The empty mask only
+ * lowercases, so the cost of a stage is the difference to the mask before it, which <code>main</code> prints:</p>
+ * <pre>
+ * java -cp target/benchmarks.jar cz.cvut.skorpste.dip.stemmer.benchmark.StageBenchmark [JMH options]
+ * </pre>
+ * <p>With <code>-p ruleProfile=profile.tsv</code> the tables are laid out by a profile of {@link RuleHistogram}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StageBenchmark {
+    static final int TOKENS = 1 << 20;
+
+    /**
+     * Masks of the stages, each adding one stage in the order of {@link CzechAgressiveCharStemmer.Stage}
+     */
+    static final String[] MASKS = {
+            "",
+            "case",
+            "case,possessive",
+            "case,possessive,comparative",
+            "case,possessive,comparative,diminutive",
+            "case,possessive,comparative,diminutive,augmentative",
+            "case,possessive,comparative,diminutive,augmentative,derivational"
+    };
+
+    @Param({
+            "",
+            "case",
+            "case,possessive",
+            "case,possessive,comparative",
+            "case,possessive,comparative,diminutive",
+            "case,possessive,comparative,diminutive,augmentative",
+            "case,possessive,comparative,diminutive,augmentative,derivational"
+    })
+    public String stages;
+
+    /**
+     * Binary corpus written by {@link CorpusGenerator}, empty for a generated one
+     */
+    @Param({""})
+    public String corpus;
+
+    /**
+     * {@link RuleProfile} the tables are laid out by, empty for none
+     */
+    @Param({""})
+    public String ruleProfile;
+
+    private PreTokenizedCorpus documents;
+    private CzechAgressiveCharStemmer stemmer;
+    private final char[] buffer = new char[64];
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (corpus.isEmpty()) {
+            documents = new CorpusGenerator(CorpusGenerator.DEFAULT_SEED, CorpusGenerator.DEFAULT_EXPONENT)
+                    .generate(TOKENS, CorpusGenerator.DEFAULT_DOCUMENT_TOKENS);
+        } else {
+            documents = PreTokenizedCorpus.read(new File(corpus));
+        }
+        RuleProfile profile = null;
+        if (!ruleProfile.isEmpty()) {
+            Reader in = new InputStreamReader(new FileInputStream(ruleProfile), StandardCharsets.UTF_8);
+            try {
+                profile = RuleProfile.read(in);
+            } finally {
+                in.close();
+            }
+        }
+        stemmer = new CzechAgressiveCharStemmer(CzechAgressiveCharStemmer.Stage.parse(split(stages)), profile);
+        next = 0;
+    }
+
+    static Collection<String> split(String mask) {
+        return mask.isEmpty() ? Arrays.<String>asList() : Arrays.asList(mask.split(","));
+    }
+
+    @Benchmark
+    public int stem() {
+        char[] form = documents.getForm(documents.getToken(next));
+        next = next + 1 == documents.getTokenCount() ? 0 : next + 1;
+        System.arraycopy(form, 0, buffer, 0, form.length);
+        return stemmer.stem(buffer, form.length);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(StageBenchmark.class.getName() + ".stem")
+                .build()).run();
+        double[] nanos = new double[MASKS.length];
+        Arrays.fill(nanos, Double.NaN);
+        for (RunResult result : results) {
+            int i = Arrays.asList(MASKS).indexOf(result.getParams().getParam("stages"));
+            if (i >= 0) {
+                nanos[i] = result.getPrimaryResult().getScore();
+            }
+        }
+        System.out.printf("%-14s %10s %10s%n", "stage", "ns/token", "total");
+        System.out.printf("%-14s %10.2f %10.2f%n", "lowercase", nanos[0], nanos[0]);
+        for (int i = 1; i < MASKS.length; i++) {
+            String stage = MASKS[i].substring(MASKS[i].lastIndexOf(',') + 1);
+            System.out.printf("%-14s %10.2f %10.2f%n", stage, nanos[i] - nanos[i - 1], nanos[i]);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightStemmer;
+import org.apache.lucene.analysis.cz.CzechStemmer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tartarus.snowball.ext.CzechHelebrandStemmer;
+import org.tartarus.snowball.ext.CzechHelebrandTrieStemmer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation of stemming one word.
+ * <p>The original implementations (Dolamic's String stemmers, the generated Helebrand stemmer)
+ * and Lucene's {@link CzechStemmer} are the baseline, the char[] stemmers and the trie Helebrand
+ * stemmer are measured next to them on the same words. Run with the GC profiler to get B/op:</p>
+ * <pre>
+ * mvn -P benchmark package
+ * java -jar target/benchmarks.jar StemmerBenchmark -prof gc
+ * </pre>
+ * <p>Every invocation stems the next word of a list of {@link #WORDS} words of the length bucket
+ * and suffix class. In place stemmers get a fresh copy of the word each time.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class StemmerBenchmark {
+    static final int WORDS = 4096;
+
+    @Param({"SHORT", "MEDIUM", "LONG"})
+    public CzechWords.Length length;
+
+    @Param({"HIT", "MISS"})
+    public CzechWords.Suffix suffix;
+
+    private String[] words;
+    private char[][] chars;
+    private final char[] buffer = new char[64];
+    private int next;
+
+    private final CzechLightStemmer light = new CzechLightStemmer();
+    private final CzechAgressiveStemmer agressive = new CzechAgressiveStemmer();
+    private final CzechHelebrandStemmer helebrand = new CzechHelebrandStemmer();
+    private final CzechStemmer lucene = new CzechStemmer();
+    private final CzechLightCharStemmer lightChar = new CzechLightCharStemmer();
+    private final CzechAgressiveCharStemmer agressiveChar = new CzechAgressiveCharStemmer();
+    private final CzechHelebrandTrieStemmer helebrandTrie = new CzechHelebrandTrieStemmer();
+
+    @Setup
+    public void setUp() {
+        words = CzechWords.generate(length, suffix, WORDS, 42);
+        chars = new char[WORDS][];
+        for (int i = 0; i < WORDS; i++) {
+            chars[i] = words[i].toCharArray();
+        }
+        next = 0;
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) & (WORDS - 1);
+        return i;
+    }
+
+    /**
+     * Copies the next word to the buffer
+     * @return its length
+     */
+    private int nextChars() {
+        char[] word = chars[nextIndex()];
+        System.arraycopy(word, 0, buffer, 0, word.length);
+        return word.length;
+    }
+
+    @Benchmark
+    public int luceneCzech() {
+        return lucene.stem(buffer, nextChars());
+    }
+
+    @Benchmark
+    public String dolamicLight() {
+        return light.stem(words[nextIndex()]);
+    }
+
+    @Benchmark
+    public String dolamicAgressive() {
+        return agressive.stem(words[nextIndex()]);
+    }
+
+    @Benchmark
+    public int helebrand() {
+        helebrand.setCurrent(buffer, nextChars());
+        helebrand.stem();
+        return helebrand.getCurrentBufferLength();
+    }
+
+    @Benchmark
+    public int dolamicLightChar() {
+        return lightChar.stem(buffer, nextChars());
+    }
+
+    @Benchmark
+    public int dolamicAgressiveChar() {
+        return agressiveChar.stem(buffer, nextChars());
+    }
+
+    @Benchmark
+    public int helebrandTrie() {
+        helebrandTrie.setCurrent(buffer, nextChars());
+        helebrandTrie.stem();
+        return helebrandTrie.getCurrentBufferLength();
+    }
+}
@@ -0,0 +1,178 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark.corpus;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic Czech corpus of the forms of the {@link CzechParadigm} lemmas and frequent function words.
+ * <p>Words are drawn from a Zipf distribution: the lemma of rank r has weight 1/r^s, the function words
+ * take the first ranks and the lemmas follow in an order given by the seed. Within a lemma the k-th form
+ * has weight 1/k^s. The same arguments always give the same corpus.</p>
+ * <pre>
+ * java -cp target/benchmarks.jar cz.cvut.skorpste.dip.stemmer.benchmark.corpus.CorpusGenerator text|binary output tokens [documentTokens [seed [exponent]]]
+ * </pre>
+ * <p>The text has a document per line, made of sentences, the binary file is a {@link PreTokenizedCorpus}.</p>
+ */
+public final class CorpusGenerator {
+    public static final double DEFAULT_EXPONENT = 1.0;
+    public static final int DEFAULT_DOCUMENT_TOKENS = 300;
+    public static final long DEFAULT_SEED = 42;
+
+    /**
+     * Function words, most frequent first
+     */
+    private static final String[] FUNCTION_WORDS = {
+            "a", "v", "se", "na", "je", "to", "\u017ee", "s", "z", "do", "o", "k", "i", "jako", "ale", "by",
+            "jeho", "pro", "tak", "po", "jsou", "jak", "jsem", "od", "tak\u00e9", "ve", "ze", "u\u017e", "kter\u00fd",
+            "nebo", "jen", "kdy\u017e", "jsme", "p\u0159i", "podle", "v\u0161ak", "u", "za", "nen\u00ed", "co"
+    };
+
+    private final char[][] forms;
+    /**
+     * Cumulative weights of the forms
+     */
+    private final double[] cumulative;
+    private final long seed;
+    private final Random random;
+
+    public CorpusGenerator(long seed, double exponent) {
+        this.seed = seed;
+        this.random = new Random(seed);
+
+        List<String[]> lemmas = new ArrayList<String[]>();
+        for (CzechParadigm paradigm : CzechParadigm.values()) {
+            for (int stem = 0; stem < paradigm.size(); stem++) {
+                lemmas.add(paradigm.forms(stem));
+            }
+        }
+        Collections.shuffle(lemmas, new Random(seed));
+        for (int i = FUNCTION_WORDS.length - 1; i >= 0; i--) {
+            lemmas.add(0, new String[] { FUNCTION_WORDS[i] });
+        }
+
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        List<String> forms = new ArrayList<String>();
+        double[] weights = new double[0];
+        for (int l = 0; l < lemmas.size(); l++) {
+            String[] lemma = lemmas.get(l);
+            double lemmaWeight = Math.pow(l + 1, -exponent);
+            double norm = 0;
+            for (int k = 0; k < lemma.length; k++) {
+                norm += Math.pow(k + 1, -exponent);
+            }
+            for (int k = 0; k < lemma.length; k++) {
+                Integer id = ids.get(lemma[k]);
+                if (id == null) {
+                    id = forms.size();
+                    ids.put(lemma[k], id);
+                    forms.add(lemma[k]);
+                    if (weights.length == id) {
+                        weights = Arrays.copyOf(weights, 2 * id + 16);
+                    }
+                }
+                weights[id] += lemmaWeight * Math.pow(k + 1, -exponent) / norm;
+            }
+        }
+
+        this.forms = new char[forms.size()][];
+        this.cumulative = new double[forms.size()];
+        double sum = 0;
+        for (int i = 0; i < this.forms.length; i++) {
+            this.forms[i] = forms.get(i).toCharArray();
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+    }
+
+    /**
+     * @return id of a form drawn by its weight
+     */
+    int nextForm() {
+        double u = random.nextDouble() * cumulative[cumulative.length - 1];
+        int i = Arrays.binarySearch(cumulative, u);
+        i = i < 0 ? -i - 1 : i + 1;
+        return Math.min(i, cumulative.length - 1);
+    }
+
+    /**
+     * @param tokens number of tokens of the corpus
+     * @param documentTokens number of tokens of a document, the last one may be shorter
+     */
+    public PreTokenizedCorpus generate(int tokens, int documentTokens) {
+        int[] ids = new int[tokens];
+        for (int t = 0; t < tokens; t++) {
+            ids[t] = nextForm();
+        }
+        int count = (tokens + documentTokens - 1) / documentTokens;
+        int[] documents = new int[count + 1];
+        for (int d = 0; d <= count; d++) {
+            documents[d] = Math.min(d * documentTokens, tokens);
+        }
+        return new PreTokenizedCorpus(forms, ids, documents);
+    }
+
+    /**
+     * Writes the corpus as text, a document per line split into sentences of 4 to 19 words
+     * starting with an upper case letter, with commas between some words.
+     */
+    public void writeText(PreTokenizedCorpus corpus, Writer out) throws IOException {
+        Random punctuation = new Random(seed + 1);
+        for (int d = 0; d < corpus.getDocumentCount(); d++) {
+            int sentenceEnd = corpus.getDocumentStart(d);
+            for (int t = corpus.getDocumentStart(d); t < corpus.getDocumentEnd(d); t++) {
+                char[] form = corpus.getForm(corpus.getToken(t));
+                if (t == sentenceEnd) {
+                    if (t > corpus.getDocumentStart(d)) {
+                        out.write(". ");
+                    }
+                    sentenceEnd = t + 4 + punctuation.nextInt(16);
+                    out.write(Character.toUpperCase(form[0]));
+                    out.write(form, 1, form.length - 1);
+                } else {
+                    out.write(punctuation.nextInt(8) == 0 ? ", " : " ");
+                    out.write(form);
+                }
+            }
+            out.write(".\n");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || !(args[0].equals("text") || args[0].equals("binary"))) {
+            System.err.println("Usage: CorpusGenerator text|binary output tokens [documentTokens [seed [exponent]]]");
+            System.exit(1);
+        }
+        File output = new File(args[1]);
+        int tokens = Integer.parseInt(args[2]);
+        int documentTokens = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_DOCUMENT_TOKENS;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+        double exponent = args.length > 5 ? Double.parseDouble(args[5]) : DEFAULT_EXPONENT;
+
+        CorpusGenerator generator = new CorpusGenerator(seed, exponent);
+        PreTokenizedCorpus corpus = generator.generate(tokens, documentTokens);
+        if (args[0].equals("binary")) {
+            corpus.write(output);
+        } else {
+            Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8));
+            try {
+                generator.writeText(corpus, out);
+            } finally {
+                out.close();
+            }
+        }
+        System.out.println(corpus.getTokenCount() + " tokens, " + corpus.getDocumentCount() + " documents, "
+                + corpus.getFormCount() + " forms, " + output.length() + " bytes");
+    }
+}
@@ -0,0 +1,50 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark.corpus;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+/**
+ * Tokens of a range of documents of a {@link PreTokenizedCorpus}, without any reading or tokenizing,
+ * so the filters after it get all the time of a benchmark.
+ */
+public final class CorpusTokenStream extends TokenStream {
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final PreTokenizedCorpus corpus;
+    private int start;
+    private int end;
+    private int next;
+
+    /**
+     * Stream of the whole corpus
+     */
+    public CorpusTokenStream(PreTokenizedCorpus corpus) {
+        this.corpus = corpus;
+        setDocuments(0, corpus.getDocumentCount());
+    }
+
+    /**
+     * Sets the documents of the stream from the next {@link #reset()}
+     * @param from first document
+     * @param to document after the last one
+     */
+    public void setDocuments(int from, int to) {
+        start = corpus.getDocumentStart(from);
+        end = corpus.getDocumentStart(to);
+    }
+
+    @Override
+    public boolean incrementToken() {
+        if (next >= end) {
+            return false;
+        }
+        clearAttributes();
+        char[] form = corpus.getForm(corpus.getToken(next++));
+        termAtt.copyBuffer(form, 0, form.length);
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        next = start;
+    }
+}
@@ -0,0 +1,107 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark.corpus;
+
+/**
+ * Declension paradigms of the stemmer tests with lemmas to inflect.
+ * <p>Every lemma is given by its stem, the forms are the stem followed by the endings of the paradigm,
+ * without stem alternations. The endings are ordered from the most frequent form.
+ * Lemmas are chosen so the regular forms are real words or close to them, all of them lowercase.</p>
+ */
+public enum CzechParadigm {
+    /** masculine animate ending with a hard consonant */
+    PAN("", new String[] { "", "a", "em", "ovi", "i", "\u016f", "y", "ov\u00e9", "\u016fm", "ech", "e" },
+            "p\u00e1n", "student", "ob\u010dan", "soused", "doktor", "pilot", "autor", "prezident", "in\u017een\u00fdr", "sportovec"),
+    /** masculine inanimate ending with a hard consonant */
+    HRAD("", new String[] { "", "u", "em", "y", "\u016f", "ech", "\u016fm", "e" },
+            "hrad", "most", "z\u00e1kon", "obchod", "vlak", "n\u00e1rod", "v\u00fdzkum", "pohled", "obraz", "zvuk", "sad", "les"),
+    /** masculine animate ending with a soft consonant */
+    MUZ("", new String[] { "", "e", "i", "em", "\u016f", "\u016fm", "\u00edch" },
+            "mu\u017e", "u\u010ditel", "p\u0159\u00edtel", "\u0159idi\u010d", "l\u00e9ka\u0159", "mal\u00ed\u0159", "spisovatel", "cestovatel"),
+    /** masculine inanimate ending with a soft consonant */
+    STROJ("", new String[] { "", "e", "i", "em", "\u016f", "\u016fm", "\u00edch" },
+            "stroj", "pokoj", "\u010daj", "kl\u00ed\u010d", "me\u010d", "ko\u0161", "n\u016f\u017e", "tal\u00ed\u0159"),
+    /** masculine ending with a */
+    PREDSEDA("", new String[] { "a", "y", "u", "ou", "ovi", "ov\u00e9", "\u016f", "\u016fm", "ech", "o" },
+            "p\u0159edsed", "koleg", "turist", "husit", "starost", "sluh"),
+    /** masculine ending with e */
+    SOUDCE("", new String[] { "e", "i", "em", "\u016f", "\u016fm", "\u00edch" },
+            "soudc", "spr\u00e1vc", "v\u016fdc", "pr\u016fvodc", "z\u00e1stupc", "obh\u00e1jc"),
+    /** feminine ending with a hard consonant */
+    KOST("", new String[] { "", "i", "\u00ed", "em", "ech", "mi" },
+            "kost", "radost", "mladost", "vlast", "nemoc", "souvislost", "spole\u010dnost", "v\u011bc"),
+    /** feminine ending with e */
+    RUZE("", new String[] { "e", "i", "\u00ed", "\u00edm", "\u00edch", "emi" },
+            "r\u016f\u017e", "ulic", "pr\u00e1v", "nemocnic", "tov\u00e1rn", "kuchyn", "\u0161kolk", "stanic"),
+    /** feminine ending with a */
+    ZENA("", new String[] { "a", "y", "u", "ou", "\u011b", "", "\u00e1m", "\u00e1ch", "ami", "o" },
+            "\u017een", "\u0161kol", "vod", "zem", "cest", "hospod", "knih", "hlav", "noh", "hudb", "vl\u00e1d", "ot\u00e1zk"),
+    /** neuter ending with o */
+    MESTO("", new String[] { "o", "a", "u", "em", "\u011b", "", "y", "\u016fm", "ech" },
+            "m\u011bst", "slov", "okn", "j\u00eddl", "kol", "m\u00fddl", "sklen", "letadl", "divadl"),
+    /** neuter ending with e */
+    MORE("", new String[] { "e", "\u00ed", "i", "em", "\u00edm", "\u00edch" },
+            "mo\u0159", "pol", "leti\u0161", "h\u0159i\u0161", "parkovi\u0161", "srdc", "slunc", "vejc"),
+    /** neuter ending with ě */
+    KURE("", new String[] { "e", "ete", "eti", "etem", "ata", "at", "at\u016fm", "atech", "aty" },
+            "ku\u0159", "kot", "\u0161t\u011bn", "tel", "h\u0159\u00edb", "pras", "pta\u010d"),
+    /** neuter ending with í */
+    STAVENI("", new String[] { "\u00ed", "\u00edm", "\u00edch", "\u00edmi" },
+            "staven", "n\u00e1m\u011bst", "n\u00e1dra\u017e", "rozhodnut", "vysv\u011bd\u010den", "\u0159e\u0161en", "cvi\u010den", "hospod\u00e1\u0159stv"),
+    /** adjectives ending with ý/á/é */
+    MLADY("", new String[] { "\u00fd", "\u00e1", "\u00e9", "\u00e9ho", "ou", "\u00fdch", "\u00e9m", "\u00fdm", "\u00e9mu", "\u00ed", "\u00fdmi" },
+            "mlad", "star", "nov", "velk", "mal", "dobr", "zlat", "\u010dist", "rychl", "zelen", "b\u00edl", "\u010desk"),
+    /** adjectives ending with í */
+    JARNI("", new String[] { "\u00ed", "\u00edho", "\u00edch", "\u00edm", "\u00edmu", "\u00edmi" },
+            "jarn", "letn", "zimn", "ciz", "dom\u00e1c", "posledn", "n\u00e1rodn", "hlavn"),
+    /** possessive adjectives of masculine nouns */
+    KARLUV("", new String[] { "\u016fv", "ova", "ovo", "ovy", "ovi", "ov\u00fdch", "ov\u00fdm", "ovou", "ov\u011b", "ovu", "ov\u00fdmi" },
+            "karl", "petr", "pavl", "otc", "bratr", "jan", "tom\u00e1\u0161"),
+    /** possessive adjectives of feminine nouns */
+    MATCIN("", new String[] { "in", "ina", "ino", "iny", "ini", "in\u00fdch", "in\u00fdm", "inou", "in\u011b" },
+            "mat\u010d", "sest\u0159", "jan", "mart", "ev\u010d", "babi\u010d\u010d"),
+    /** derived adjectives */
+    JAZYKOVY("", new String[] { "ov\u00fd", "ov\u00e1", "ov\u00e9", "ov\u00e9ho", "ovou", "ov\u00fdch", "ov\u00e9m", "ov\u00fdm", "ov\u00e9mu", "ov\u00ed", "ov\u00fdmi" },
+            "jazyk", "zvuk", "obchod", "vlak", "hrad", "dom", "strom", "barv", "les"),
+    /** comparatives */
+    KRASNEJSI("", new String[] { "\u011bj\u0161\u00ed", "\u011bj\u0161\u00edho", "\u011bj\u0161\u00edch", "\u011bj\u0161\u00edm", "\u011bj\u0161\u00edmu", "\u011bj\u0161\u00edmi" },
+            "kr\u00e1sn", "zaj\u00edmav", "d\u016fle\u017eit", "pomal", "levn", "bezpe\u010dn", "p\u0159esn", "moud\u0159"),
+    /** superlatives, the comparatives with a prefix */
+    NEJKRASNEJSI("nej", new String[] { "\u011bj\u0161\u00ed", "\u011bj\u0161\u00edho", "\u011bj\u0161\u00edch", "\u011bj\u0161\u00edm", "\u011bj\u0161\u00edmu", "\u011bj\u0161\u00edmi" },
+            "kr\u00e1sn", "zaj\u00edmav", "d\u016fle\u017eit", "pomal", "levn", "bezpe\u010dn", "p\u0159esn", "moud\u0159"),
+    /** masculine diminutives */
+    DOMEK("", new String[] { "ek", "ku", "kem", "ky", "k\u016f", "k\u016fm", "c\u00edch", "\u010dku", "\u010dkem" },
+            "dom", "strom", "vl\u00e1", "kous", "l\u00eds", "zvone", "hrn\u00ed"),
+    /** feminine diminutives */
+    RUCKA("", new String[] { "ka", "ky", "ku", "kou", "ce", "ek", "k\u00e1m", "k\u00e1ch", "kami" },
+            "ru\u010d", "kn\u00ed\u017ee\u010d", "hlavi\u010d", "hol\u010d", "ko\u010di\u010d", "rybi\u010d", "p\u00edsni\u010d"),
+    /** neuter diminutives */
+    OKENKO("", new String[] { "ko", "ka", "ku", "kem", "ce", "ek", "k\u016fm", "k\u00e1ch", "ky" },
+            "ok\u00e9n", "m\u011bste\u010d", "slov\u00ed\u010d", "kol\u00ed\u010d", "jabl\u00ed\u010d", "srd\u00ed\u010d");
+
+    final String prefix;
+    final String[] endings;
+    final String[] stems;
+
+    CzechParadigm(String prefix, String[] endings, String... stems) {
+        this.prefix = prefix;
+        this.endings = endings;
+        this.stems = stems;
+    }
+
+    /**
+     * @return all forms of the lemma, from the most frequent one
+     */
+    String[] forms(int stem) {
+        String[] forms = new String[endings.length];
+        for (int i = 0; i < endings.length; i++) {
+            forms[i] = prefix + stems[stem] + endings[i];
+        }
+        return forms;
+    }
+
+    /**
+     * @return number of lemmas of the paradigm
+     */
+    int size() {
+        return stems.length;
+    }
+}
@@ -0,0 +1,165 @@
+package cz.cvut.skorpste.dip.stemmer.benchmark.corpus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Corpus of lowercase tokens held in memory as ids of distinct forms.
+ * <p>The binary file starts with {@link #MAGIC} and {@link #VERSION}, then come the forms
+ * (count and modified UTF-8 strings) and the documents (count, then token count and token ids
+ * of every document). Counts and ids are variable length ints, so the file is a few bytes per token
+ * and reading it costs no tokenization.</p>
+ */
+public final class PreTokenizedCorpus {
+    static final int MAGIC = 0x435a5443;
+    static final int VERSION = 1;
+
+    private final char[][] forms;
+    private final int[] tokens;
+    /**
+     * Index of the first token of every document, and the token count at the end
+     */
+    private final int[] documents;
+
+    /**
+     * @param forms distinct forms, a token is an index to them
+     * @param tokens tokens of all documents
+     * @param documents index of the first token of every document followed by the token count
+     */
+    public PreTokenizedCorpus(char[][] forms, int[] tokens, int[] documents) {
+        if (documents.length == 0 || documents[0] != 0 || documents[documents.length - 1] != tokens.length) {
+            throw new IllegalArgumentException("Documents do not cover the tokens");
+        }
+        this.forms = forms;
+        this.tokens = tokens;
+        this.documents = documents;
+    }
+
+    public int getFormCount() {
+        return forms.length;
+    }
+
+    public int getTokenCount() {
+        return tokens.length;
+    }
+
+    public int getDocumentCount() {
+        return documents.length - 1;
+    }
+
+    /**
+     * @return chars of the form, not to be changed
+     */
+    public char[] getForm(int id) {
+        return forms[id];
+    }
+
+    /**
+     * @return form id of the token
+     */
+    public int getToken(int index) {
+        return tokens[index];
+    }
+
+    /**
+     * @return index of the first token of the document, the token count for {@link #getDocumentCount()}
+     */
+    public int getDocumentStart(int document) {
+        return documents[document];
+    }
+
+    /**
+     * @return index after the last token of the document
+     */
+    public int getDocumentEnd(int document) {
+        return documents[document + 1];
+    }
+
+    public void write(File file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeVInt(out, forms.length);
+            for (char[] form : forms) {
+                out.writeUTF(new String(form));
+            }
+            writeVInt(out, getDocumentCount());
+            for (int d = 0; d < getDocumentCount(); d++) {
+                writeVInt(out, documents[d + 1] - documents[d]);
+                for (int t = documents[d]; t < documents[d + 1]; t++) {
+                    writeVInt(out, tokens[t]);
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    public static PreTokenizedCorpus read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a pre-tokenized corpus: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported corpus version " + version + ": " + file);
+            }
+            char[][] forms = new char[readVInt(in)][];
+            for (int i = 0; i < forms.length; i++) {
+                forms[i] = in.readUTF().toCharArray();
+            }
+            int[] documents = new int[readVInt(in) + 1];
+            int[] tokens = new int[1024];
+            int count = 0;
+            for (int d = 1; d < documents.length; d++) {
+                int length = readVInt(in);
+                if (count + length > tokens.length) {
+                    int[] grown = new int[Math.max(count + length, 2 * tokens.length)];
+                    System.arraycopy(tokens, 0, grown, 0, count);
+                    tokens = grown;
+                }
+                for (int t = 0; t < length; t++) {
+                    int id = readVInt(in);
+                    if (id >= forms.length) {
+                        throw new IOException("Token id " + id + " out of range: " + file);
+                    }
+                    tokens[count++] = id;
+                }
+                documents[d] = count;
+            }
+            int[] exact = new int[count];
+            System.arraycopy(tokens, 0, exact, 0, count);
+            return new PreTokenizedCorpus(forms, exact, documents);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void writeVInt(DataOutputStream out, int i) throws IOException {
+        while ((i & ~0x7F) != 0) {
+            out.writeByte((i & 0x7F) | 0x80);
+            i >>>= 7;
+        }
+        out.writeByte(i);
+    }
+
+    private static int readVInt(DataInputStream in) throws IOException {
+        int i = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            i |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return i;
+            }
+        }
+        throw new IOException("Malformed variable length int");
+    }
+}
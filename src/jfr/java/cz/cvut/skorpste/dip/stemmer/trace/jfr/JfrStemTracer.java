@@ -0,0 +1,44 @@
+package cz.cvut.skorpste.dip.stemmer.trace.jfr;
+
+import cz.cvut.skorpste.dip.stemmer.trace.StemTracer;
+import jdk.jfr.EventType;
+
+/**
+ * {@link StemTracer} committing a {@link StemEvent} for every sampled token.
+ * It is loaded by {@link cz.cvut.skorpste.dip.stemmer.trace.StemTrace} when tracing is on.
+ */
+public final class JfrStemTracer implements StemTracer {
+    private static final EventType TYPE = EventType.getEventType(StemEvent.class);
+
+    @Override
+    public boolean isEnabled() {
+        return TYPE.isEnabled();
+    }
+
+    @Override
+    public void stemmed(String implementation, String suffix, int inputLength, String[] stages, long[] stageNanos,
+                        int firedStages, int stemLength) {
+        StemEvent event = new StemEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        StringBuilder fired = new StringBuilder();
+        StringBuilder times = new StringBuilder();
+        long total = 0;
+        for (int i = 0; i < stages.length; i++) {
+            if ((firedStages & 1 << i) != 0) {
+                fired.append(fired.length() == 0 ? "" : ",").append(stages[i]);
+            }
+            times.append(i == 0 ? "" : ",").append(stages[i]).append('=').append(stageNanos[i]);
+            total += stageNanos[i];
+        }
+        event.implementation = implementation;
+        event.suffix = suffix;
+        event.inputLength = inputLength;
+        event.firedStages = fired.toString();
+        event.stageTimes = times.toString();
+        event.stemNanos = total;
+        event.stemLength = stemLength;
+        event.commit();
+    }
+}
@@ -0,0 +1,55 @@
+package cz.cvut.skorpste.dip.stemmer.trace.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import jdk.jfr.Unsigned;
+
+/**
+ * Flight Recorder event of a sampled token, disabled unless enabled in the recording settings:
+ * <pre>
+ * jfr configure --input default.jfc cz.cvut.skorpste.dip.stemmer.Stem#enabled=true --output stem.jfc
+ * java -Dcz.cvut.skorpste.dip.stemmer.trace=true -XX:StartFlightRecording=settings=stem.jfc,filename=stem.jfr ...
+ * </pre>
+ */
+@Name("cz.cvut.skorpste.dip.stemmer.Stem")
+@Label("Czech Stemming")
+@Category({ "Lucene", "Czech Stemmer" })
+@Description("A sampled token stemmed by a Czech stemmer, with the time of every stage")
+@Enabled(false)
+@StackTrace(false)
+public class StemEvent extends Event {
+    @Label("Implementation")
+    String implementation;
+
+    @Label("Suffix")
+    @Description("Last three chars of the input")
+    String suffix;
+
+    @Label("Input Length")
+    @Description("Chars of the input")
+    @Unsigned
+    int inputLength;
+
+    @Label("Fired Stages")
+    @Description("Stages which changed the word")
+    String firedStages;
+
+    @Label("Stage Times")
+    @Description("Nanoseconds of every stage run")
+    String stageTimes;
+
+    @Label("Stemming Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long stemNanos;
+
+    @Label("Stem Length")
+    @Description("Chars of the stem")
+    @Unsigned
+    int stemLength;
+}
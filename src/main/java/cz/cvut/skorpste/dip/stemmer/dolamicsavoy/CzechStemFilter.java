@@ -1,12 +1,17 @@
 package cz.cvut.skorpste.dip.stemmer.dolamicsavoy;
 
-import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveStemmer;
-import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightStemmer;
-import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemSnapshot;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionary;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.stats.StemStatistics;
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.CharsRef;
+import org.apache.lucene.util.fst.FST;
 
 import java.io.IOException;
 
@@ -15,33 +20,173 @@ import java.io.IOException;
  * A {@link org.apache.lucene.analysis.TokenFilter} that applies {@link org.apache.lucene.analysis.cz.CzechStemmer} to stem Czech words using Dolamic's implementation.
  * <p><b>NOTE</b>: Input is expected to be in lowercase,
  * but with diacritical marks</p>
+ * <p>The stem is written back to the term buffer in place.
+ * With a {@link StemDictionary} the forms found in it get its stems and only the others are stemmed.
+ * With a {@link StemCache} the stems of already seen words are copied from the cache instead.
+ * A {@link StemSnapshot} is searched only when the cache misses, and the stems found in it are cached,
+ * so a cache hit hashes the word once.</p>
+ * <p>With {@link StemStatistics} the tokens are counted and added to the statistics at the end of the stream.
+ * Only every {@link #TIMING_INTERVAL}th token is timed, as reading the clock costs about as much as stemming.</p>
  */
 public final class CzechStemFilter extends TokenFilter {
-    private final CzechStemmer stemmer;
+    /**
+     * One of this many stemmed tokens is timed
+     */
+    public static final int TIMING_INTERVAL = 64;
+
+    private final CzechCharStemmer stemmer;
+    private final StemCache cache;
+    private final StemSnapshot snapshot;
+    private final StemStatistics statistics;
+    private final StemDictionary dictionary;
+    /**
+     * null without a dictionary or for an empty one
+     */
+    private final FST.BytesReader fstReader;
+    private final FST.Arc<CharsRef> scratchArc = new FST.Arc<CharsRef>();
     private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
     private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+    /**
+     * Copy of the word being stemmed, it is the key of the new cache entry
+     */
+    private char[] word = new char[0];
+    private long tokens;
+    private long keywords;
+    private long timedTokens;
+    private long nanos;
+    /**
+     * Tokens to stem before the next timed one, kept across streams so short field values are sampled too
+     */
+    private int untilTimed;
+    private long chars;
+    private long stemChars;
+
+    public CzechStemFilter(TokenStream input, CzechCharStemmer stemmer) {
+        this(input, stemmer, null);
+    }
+
+    /**
+     * @param cache cache of stems, null to stem every token
+     */
+    public CzechStemFilter(TokenStream input, CzechCharStemmer stemmer, StemCache cache) {
+        this(input, stemmer, null, cache);
+    }
+
+    /**
+     * @param snapshot stems loaded from an earlier run, null if there are none
+     * @param cache cache of stems, null to stem every token
+     */
+    public CzechStemFilter(TokenStream input, CzechCharStemmer stemmer, StemSnapshot snapshot, StemCache cache) {
+        this(input, stemmer, snapshot, cache, null);
+    }
 
-    public CzechStemFilter(TokenStream input, CzechStemmer stemmer) {
+    /**
+     * @param snapshot stems loaded from an earlier run, null if there are none
+     * @param cache cache of stems, null to stem every token
+     * @param statistics statistics the tokens are counted to, null to count nothing
+     */
+    public CzechStemFilter(TokenStream input, CzechCharStemmer stemmer, StemSnapshot snapshot, StemCache cache,
+                           StemStatistics statistics) {
+        this(input, stemmer, null, snapshot, cache, statistics);
+    }
+
+    /**
+     * @param dictionary stems of the forms to look up before stemming, null if there are none
+     * @param snapshot stems loaded from an earlier run, null if there are none
+     * @param cache cache of stems, null to stem every token
+     * @param statistics statistics the tokens are counted to, null to count nothing
+     */
+    public CzechStemFilter(TokenStream input, CzechCharStemmer stemmer, StemDictionary dictionary,
+                           StemSnapshot snapshot, StemCache cache, StemStatistics statistics) {
         super(input);
         this.stemmer=stemmer;
+        this.dictionary=dictionary;
+        this.fstReader=dictionary == null ? null : dictionary.getBytesReader();
+        this.snapshot=snapshot;
+        this.cache=cache;
+        this.statistics=statistics;
     }
 
     @Override
     public boolean incrementToken() throws IOException {
         if (input.incrementToken()) {
-            if (!keywordAttr.isKeyword()) {
-                String string=new String(termAtt.buffer()).substring(0,termAtt.length());
-                //System.out.println("|"+termAtt.length()+"|");
-                //System.out.println(">"+string+">");
-                //System.out.println("#"+string.length()+"#");
-                string=stemmer.stem(string);
-                //System.out.println("<"+string+"<");
-                //System.out.println("#"+string.length()+"#");
-                termAtt.setLength(string.length());
+            if (keywordAttr.isKeyword()) {
+                keywords++;
+            } else if (statistics == null) {
+                termAtt.setLength(stem(termAtt.length()));
+            } else {
+                final int len = termAtt.length();
+                final int newlen;
+                if (--untilTimed < 0) {
+                    untilTimed = TIMING_INTERVAL - 1;
+                    final long start = System.nanoTime();
+                    newlen = stem(len);
+                    nanos += System.nanoTime() - start;
+                    timedTokens++;
+                } else {
+                    newlen = stem(len);
+                }
+                tokens++;
+                chars += len;
+                stemChars += newlen;
+                termAtt.setLength(newlen);
             }
             return true;
         } else {
             return false;
         }
     }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        flushStatistics();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushStatistics();
+        super.close();
+    }
+
+    private void flushStatistics() {
+        if (statistics != null && (tokens != 0 || keywords != 0)) {
+            statistics.add(tokens, keywords, timedTokens, nanos, chars, stemChars);
+        }
+        tokens = 0;
+        keywords = 0;
+        timedTokens = 0;
+        nanos = 0;
+        chars = 0;
+        stemChars = 0;
+    }
+
+    /**
+     * @return length of the stem, written to the term buffer
+     */
+    private int stem(int len) throws IOException {
+        if (fstReader != null && dictionary.stem(termAtt, scratchArc, fstReader)) {
+            return termAtt.length();
+        }
+        final char[] buffer = termAtt.buffer();
+        if (cache == null) {
+            final int newlen = snapshot == null ? -1 : snapshot.get(buffer, len);
+            return newlen >= 0 ? newlen : stemmer.stem(buffer, len);
+        }
+        int newlen = cache.get(buffer, len);
+        if (newlen < 0) {
+            if (word.length < len) {
+                word = new char[ArrayUtil.oversize(len, 2)];
+            }
+            System.arraycopy(buffer, 0, word, 0, len);
+            if (snapshot != null) {
+                newlen = snapshot.get(buffer, len);
+            }
+            if (newlen < 0) {
+                newlen = stemmer.stem(buffer, len);
+            }
+            cache.put(word, len, buffer, newlen);
+        }
+        return newlen;
+    }
 }
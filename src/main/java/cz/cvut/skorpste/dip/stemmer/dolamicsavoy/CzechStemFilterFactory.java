@@ -1,14 +1,41 @@
 package cz.cvut.skorpste.dip.stemmer.dolamicsavoy;
 
 
-import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.OffHeapStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.SharedStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemSnapshot;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemSnapshotWriter;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StreamStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionary;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.RuleProfile;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.stats.StemStatistics;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.util.ResourceLoader;
 import org.apache.lucene.analysis.util.ResourceLoaderAware;
 import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.core.SolrInfoMBean;
+import org.apache.solr.core.SolrResourceLoader;
 
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * Factory for {@link org.apache.lucene.analysis.cz.CzechStemFilter}.
@@ -28,10 +55,65 @@ import java.util.Map;
  * &lt;/analyzer&gt;
  * &lt;/fieldType&gt;
  * </pre>
+ * <p>Stems of frequent words can be cached with <code>cacheSize</code> (number of words, 0 disables the cache)
+ * and <code>cacheScope</code>, either <code>stream</code> for a cache of every TokenStream
+ * or <code>shared</code> for one thread safe cache used by all TokenStreams of the factory:</p>
+ * <pre class="prettyprint">
+ * &lt;filter class="cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory" implementation="Agressive" cacheSize="100000" cacheScope="shared"/&gt;
+ * </pre>
+ * <p>Very large caches can be kept out of the Java heap with <code>cacheBackend="offheap"</code>,
+ * such a cache is always shared.</p>
+ * <p>With <code>cacheSnapshot="stems.bin"</code> the stems of the hottest words are loaded from a snapshot file
+ * of an earlier run, so a restarted core does not start with an empty cache. A relative path is looked up
+ * in the data directory of the core and then in its conf directory. The snapshot is memory mapped
+ * and ignored when it was made by another implementation. {@link #writeSnapshot()} or {@link #close()}
+ * write the entries of the shared cache together with the loaded snapshot to the data directory.
+ * Solr closes no token filter factories, so a core using snapshots needs
+ * {@link cz.cvut.skorpste.dip.stemmer.solr.StemSnapshotHandler}, which writes them when the core is closed
+ * and on request.</p>
+ * <p>With <code>dictionary="stems.fst"</code> the forms are looked up in a dictionary built offline by
+ * {@link cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionaryBuilder} first,
+ * only the forms missing in it are stemmed by the implementation. The dictionary has to be built
+ * by the same implementation and stages, otherwise the factory fails to load.</p>
+ * <p>The Agressive implementation can run only some of its stages, given in any order by <code>stages</code>,
+ * from <code>case</code>, <code>possessive</code>, <code>comparative</code>, <code>diminutive</code>,
+ * <code>augmentative</code> and <code>derivational</code>. They still run in this order:</p>
+ * <pre class="prettyprint">
+ * &lt;filter class="cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory" implementation="Agressive" stages="case,possessive,comparative,diminutive"/&gt;
+ * </pre>
+ * <p>With <code>ruleProfile="rules.tsv"</code> the Light and Agressive stemmers lay out their rule tables
+ * by a {@link RuleProfile} collected on a similar corpus, which does not change the stems.</p>
+ * <p>The factory is a {@link SolrInfoMBean}, Solr registers it when it loads the schema, and the statistics
+ * of all its filters are shown in the OTHER category of the Plugins view of the admin UI.
+ * The tokens are counted and one of {@link CzechStemFilter#TIMING_INTERVAL} stemmed tokens is timed,
+ * the stemming time is estimated from them. <code>statistics="false"</code> turns off counting and timing
+ * the tokens, only the cache statistics remain.</p>
  */
-public class CzechStemFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+public class CzechStemFilterFactory extends TokenFilterFactory implements ResourceLoaderAware, Closeable, SolrInfoMBean {
+    public static final String CACHE_SCOPE_STREAM = "stream";
+    public static final String CACHE_SCOPE_SHARED = "shared";
+    public static final String CACHE_BACKEND_HEAP = "heap";
+    public static final String CACHE_BACKEND_OFFHEAP = "offheap";
+
     private final String implementation;
-    private Class<? extends CzechStemmer> stemClass;
+    private final int cacheSize;
+    private final String cacheScope;
+    private final String cacheSnapshot;
+    private final String dictionaryFile;
+    private final EnumSet<CzechAgressiveCharStemmer.Stage> stages;
+    private final String ruleProfile;
+    private final StemCache sharedCache;
+    private final StemStatistics statistics;
+    private final Set<StreamStemCache> streamCaches = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<StreamStemCache, Boolean>()));
+    private Class<? extends CzechCharStemmer> stemClass;
+    /**
+     * Stateless stemmer shared by all filters of the factory
+     */
+    private CzechCharStemmer stemmer;
+    private File snapshotFile;
+    private StemSnapshot snapshot;
+    private StemDictionary dictionary;
     /**
      * Creates a new CzechStemFilterFactory
      * @param args key-value pairs of parameters to change behavior
@@ -39,27 +121,243 @@ public class CzechStemFilterFactory extends TokenFilterFactory implements Resour
     public CzechStemFilterFactory(Map<String, String> args) {
         super(args);
         implementation = get(args, "implementation", "Light");
+        cacheSize = getInt(args, "cacheSize", 0);
+        cacheScope = get(args, "cacheScope", Arrays.asList(CACHE_SCOPE_STREAM, CACHE_SCOPE_SHARED), CACHE_SCOPE_STREAM);
+        String cacheBackend = get(args, "cacheBackend", Arrays.asList(CACHE_BACKEND_HEAP, CACHE_BACKEND_OFFHEAP), CACHE_BACKEND_HEAP);
+        cacheSnapshot = get(args, "cacheSnapshot");
+        dictionaryFile = get(args, "dictionary");
+        Set<String> stageNames = getSet(args, "stages");
+        ruleProfile = get(args, "ruleProfile");
+        statistics = getBoolean(args, "statistics", true) ? new StemStatistics() : null;
         if (!args.isEmpty()) {
             throw new IllegalArgumentException("Unknown parameters: " + args);
         }
+        if (stageNames == null) {
+            stages = null;
+        } else if (!"Agressive".equals(implementation)) {
+            throw new IllegalArgumentException("stages can be selected only for the Agressive implementation");
+        } else {
+            stages = CzechAgressiveCharStemmer.Stage.parse(stageNames);
+            if (stages.isEmpty()) {
+                throw new IllegalArgumentException("stages must not be empty");
+            }
+        }
+        if (ruleProfile != null && !"Light".equals(implementation) && !"Agressive".equals(implementation)) {
+            throw new IllegalArgumentException("ruleProfile can be used only with the Light and Agressive implementations");
+        }
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("cacheSize must not be negative: " + cacheSize);
+        }
+        if (cacheSize == 0) {
+            sharedCache = null;
+        } else if (CACHE_BACKEND_OFFHEAP.equals(cacheBackend)) {
+            sharedCache = new OffHeapStemCache(cacheSize);
+        } else if (CACHE_SCOPE_SHARED.equals(cacheScope)) {
+            sharedCache = new SharedStemCache(cacheSize);
+        } else {
+            sharedCache = null;
+        }
     }
 
 
     public void inform(ResourceLoader loader) throws IOException {
-        String className = "cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.Czech" + implementation + "Stemmer";
+        String className = "cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.Czech" + implementation + "CharStemmer";
+
+        stemClass = loader.findClass(className, CzechCharStemmer.class);
+        RuleProfile profile = null;
+        if (ruleProfile != null) {
+            InputStream in = loader.openResource(ruleProfile);
+            try {
+                profile = RuleProfile.read(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } finally {
+                in.close();
+            }
+        }
+        if (stages != null) {
+            stemmer = new CzechAgressiveCharStemmer(stages, profile);
+        } else if (profile != null && "Light".equals(implementation)) {
+            stemmer = new CzechLightCharStemmer(profile);
+        } else if (profile != null) {
+            stemmer = new CzechAgressiveCharStemmer(profile);
+        } else {
+            try {
+                stemmer = stemClass.newInstance();
+            } catch (Exception e) {
+                throw new RuntimeException("Error instantiating stemmer " + implementation + " from class " + stemClass, e);
+            }
+        }
+        if (dictionaryFile != null) {
+            InputStream in = loader.openResource(dictionaryFile);
+            try {
+                dictionary = StemDictionary.read(in);
+            } finally {
+                in.close();
+            }
+            String dictionaryStemmer = StemDictionary.stemmerName(implementation, stages);
+            if (!dictionaryStemmer.equals(dictionary.getStemmer())) {
+                throw new IllegalArgumentException("Dictionary " + dictionaryFile + " was built by the stemmer '"
+                        + dictionary.getStemmer() + "', not by " + dictionaryStemmer);
+            }
+        }
+        if (cacheSnapshot != null) {
+            File file = new File(cacheSnapshot);
+            if (!file.isAbsolute() && loader instanceof SolrResourceLoader) {
+                SolrResourceLoader solrLoader = (SolrResourceLoader) loader;
+                File confFile = new File(solrLoader.getConfigDir(), cacheSnapshot);
+                file = solrLoader.getDataDir() == null ? confFile : new File(solrLoader.getDataDir(), cacheSnapshot);
+                snapshotFile = file;
+                if (!file.isFile()) {
+                    file = confFile;
+                }
+            } else {
+                snapshotFile = file;
+            }
+            snapshot = StemSnapshot.open(file, getStemmerName());
+        }
+    }
 
-        stemClass = loader.findClass(className, CzechStemmer.class);
+    /**
+     * @return name of the stemmer class, with the stages if only some of them run
+     */
+    private String getStemmerName() {
+        return stages == null ? stemClass.getName() : stemClass.getName() + stages.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return file the snapshot is written to, null if no <code>cacheSnapshot</code> is configured
+     *         or the factory is not informed
+     */
+    public File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Writes the entries of the shared cache and of the loaded snapshot to the <code>cacheSnapshot</code> file.
+     * The file will be used after the next reload of the core.
+     * @throws IOException if the snapshot can not be written
+     */
+    public void writeSnapshot() throws IOException {
+        if (snapshotFile == null) {
+            throw new IllegalStateException("No cacheSnapshot configured or the factory is not informed");
+        }
+        StemSnapshotWriter writer = new StemSnapshotWriter(getStemmerName(),
+                Math.max(cacheSize, snapshot == null ? 0 : snapshot.size()));
+        if (sharedCache != null) {
+            sharedCache.export(writer);
+        }
+        if (snapshot != null) {
+            snapshot.export(writer);
+        }
+        writer.write(snapshotFile);
+    }
+
+    /**
+     * Writes the snapshot if <code>cacheSnapshot</code> is configured
+     */
+    public void close() throws IOException {
+        if (snapshotFile != null) {
+            writeSnapshot();
+        }
     }
 
     @Override
     public TokenStream create(TokenStream input) {
-        CzechStemmer stemmer;
-        try {
-            stemmer = stemClass.newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException("Error instantiating stemmer" + implementation + "from class " + stemClass, e);
+        return new CzechStemFilter(input, stemmer, dictionary, snapshot, createCache(), statistics);
+    }
+
+    private StemCache createCache() {
+        if (cacheSize == 0) {
+            return null;
+        }
+        if (sharedCache != null) {
+            return sharedCache;
+        }
+        StreamStemCache cache = new StreamStemCache(cacheSize);
+        streamCaches.add(cache);
+        return cache;
+    }
+
+    /**
+     * @return number of cache lookups which found the stem, summed over the live TokenStreams
+     */
+    public long getCacheHits() {
+        if (sharedCache != null) {
+            return sharedCache.getHits();
         }
+        long hits = 0;
+        synchronized (streamCaches) {
+            for (StreamStemCache cache : streamCaches) {
+                hits += cache.getHits();
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * @return number of cache lookups which had to stem the word, summed over the live TokenStreams
+     */
+    public long getCacheMisses() {
+        if (sharedCache != null) {
+            return sharedCache.getMisses();
+        }
+        long misses = 0;
+        synchronized (streamCaches) {
+            for (StreamStemCache cache : streamCaches) {
+                misses += cache.getMisses();
+            }
+        }
+        return misses;
+    }
 
-        return new CzechStemFilter(input, stemmer);
+    public String getName() {
+        return getClass().getName() + "." + implementation + "@" + Integer.toHexString(System.identityHashCode(this));
+    }
+
+    public String getVersion() {
+        return "1.0";
+    }
+
+    public String getDescription() {
+        return "Czech " + implementation + " stemmer";
+    }
+
+    public Category getCategory() {
+        return Category.OTHER;
+    }
+
+    public String getSource() {
+        return null;
+    }
+
+    public URL[] getDocs() {
+        return null;
+    }
+
+    /**
+     * @return statistics of all filters created by the factory, since it was created
+     */
+    @SuppressWarnings("unchecked")
+    public NamedList getStatistics() {
+        NamedList list = new SimpleOrderedMap();
+        list.add("implementation", implementation);
+        if (statistics != null) {
+            long tokens = statistics.getTokens();
+            list.add("tokens", tokens);
+            list.add("keywordTokens", statistics.getKeywords());
+            double averageNanos = statistics.getAverageNanos();
+            list.add("timedTokens", statistics.getTimedTokens());
+            list.add("stemmingNanos", Math.round(averageNanos * tokens));
+            list.add("averageStemmingNanos", averageNanos);
+            list.add("averageTokenLength", statistics.getAverageTokenLength());
+            list.add("stemReductionRatio", statistics.getReductionRatio());
+        }
+        if (cacheSize > 0) {
+            long hits = getCacheHits();
+            long misses = getCacheMisses();
+            list.add("cacheHits", hits);
+            list.add("cacheMisses", misses);
+            list.add("cacheHitRatio", hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        }
+        return list;
     }
 }
@@ -0,0 +1,64 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch of recent word frequencies used to decide whether a new word
+ * is worth evicting a cached one (TinyLFU admission).
+ * Counters saturate at 15 and are halved periodically, so old popularity fades away.
+ * Not thread safe.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private final byte[] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int width = Integer.highestOneBit(Math.max(16, capacity * 4) - 1) << 1;
+        counters = new byte[width];
+        mask = width - 1;
+        sampleSize = 10 * Math.max(capacity, 16);
+    }
+
+    private int slot(int hash, int i) {
+        int h = (hash + i * 0x9e3779b9) * 0x27d4eb2d;
+        return (h ^ (h >>> 15)) & mask;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int slot = slot(hash, i);
+            if (counters[slot] < MAX_COUNT) {
+                counters[slot]++;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, counters[slot(hash, i)]);
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>= 1;
+        }
+        additions = 0;
+    }
+
+    void clear() {
+        Arrays.fill(counters, (byte) 0);
+        additions = 0;
+    }
+}
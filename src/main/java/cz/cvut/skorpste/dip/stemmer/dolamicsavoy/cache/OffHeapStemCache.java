@@ -0,0 +1,363 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Thread safe {@link StemCache} keeping words and stems outside of the Java heap.
+ * <p>Records (UTF-16 word and stem with a small header) are appended to direct {@link ByteBuffer} slabs
+ * and found through an open addressing index of primitive longs, so millions of entries add only
+ * the index to the heap and nothing for the garbage collector to trace. When the slabs are full
+ * the oldest slab is dropped as a whole (segment FIFO eviction).</p>
+ * <p>Neither a hit nor a miss nor storing a new stem allocates any object.
+ * The cache is split into independently locked shards.</p>
+ */
+public final class OffHeapStemCache implements StemCache {
+    /**
+     * Expected record size, header and about a dozen of chars for the word and its stem
+     */
+    static final int AVERAGE_RECORD_BYTES = 48;
+    private static final int HEADER_BYTES = 8;
+    private static final int SLABS_PER_SHARD = 8;
+    private static final int MIN_SLAB_BYTES = 4096;
+    private static final int MAX_SLAB_BYTES = 1 << 30;
+    private static final int MAX_INDEX_BITS = 24;
+    private static final int MAX_SHARDS = 64;
+    private static final int MIN_SHARD_SIZE = 1024;
+
+    private final Shard[] shards;
+
+    /**
+     * @param size maximal number of cached words, the slabs take about {@value #AVERAGE_RECORD_BYTES} bytes per word
+     */
+    public OffHeapStemCache(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + size);
+        }
+        int count = 1;
+        while (count < MAX_SHARDS
+                && ((long) size / (count * 2) >= MIN_SHARD_SIZE || (long) size / count > (1 << (MAX_INDEX_BITS - 1)))) {
+            count *= 2;
+        }
+        shards = new Shard[count];
+        int shardSize = (size + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(shardSize);
+        }
+    }
+
+    private Shard shardFor(int hash) {
+        // low bits pick the shard, high bits the index slot inside of it
+        return shards[hash & (shards.length - 1)];
+    }
+
+    public int get(char[] s, int len) {
+        int hash = StemTable.hash(s, len);
+        Shard shard = shardFor(hash);
+        synchronized (shard) {
+            int stemLen = shard.get(s, len, hash);
+            if (stemLen < 0) {
+                shard.misses++;
+            } else {
+                shard.hits++;
+            }
+            return stemLen;
+        }
+    }
+
+    public void put(char[] word, int wordLen, char[] stem, int stemLen) {
+        if (stemLen > wordLen) {
+            return;
+        }
+        int hash = StemTable.hash(word, wordLen);
+        Shard shard = shardFor(hash);
+        synchronized (shard) {
+            shard.put(word, wordLen, hash, stem, stemLen);
+        }
+    }
+
+    public long getHits() {
+        long hits = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                hits += shard.hits;
+            }
+        }
+        return hits;
+    }
+
+    public long getMisses() {
+        long misses = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                misses += shard.misses;
+            }
+        }
+        return misses;
+    }
+
+    public void export(Visitor visitor) {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.export(visitor);
+            }
+        }
+    }
+
+    /**
+     * @return number of cached words
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.count;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return bytes reserved outside of the heap
+     */
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (Shard shard : shards) {
+            bytes += (long) shard.slabs.length * shard.slabBytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * One independently locked part of the cache.
+     * Records are addressed by a logical address growing with every write,
+     * the slab and the offset are derived from it.
+     */
+    private static final class Shard {
+        private static final int ADDRESS_BITS = 40;
+        private static final long ADDRESS_MASK = (1L << ADDRESS_BITS) - 1;
+
+        final ByteBuffer[] slabs;
+        final int slabBytes;
+        /**
+         * Used length of every slab, records never cross slab boundaries
+         */
+        final int[] slabEnd;
+        /**
+         * Top 24 bits of the hash and logical address + 1 of the record, 0 for an empty slot
+         */
+        final long[] index;
+        final int indexBits;
+        final int maxCount;
+        long head;
+        long tail;
+        int count;
+        long hits;
+        long misses;
+
+        Shard(int size) {
+            long bytes = (long) size * AVERAGE_RECORD_BYTES;
+            slabBytes = (int) Math.min(MAX_SLAB_BYTES, Math.max(MIN_SLAB_BYTES, bytes / SLABS_PER_SHARD));
+            slabs = new ByteBuffer[SLABS_PER_SHARD];
+            for (int i = 0; i < slabs.length; i++) {
+                slabs[i] = ByteBuffer.allocateDirect(slabBytes).order(ByteOrder.nativeOrder());
+            }
+            slabEnd = new int[SLABS_PER_SHARD];
+            indexBits = Math.min(MAX_INDEX_BITS, 32 - Integer.numberOfLeadingZeros(Math.max(1, size * 2 - 1)));
+            index = new long[1 << indexBits];
+            maxCount = Math.min(size, index.length / 2);
+        }
+
+        private static long tag(int hash) {
+            return (hash >>> 8) & 0xffffffL;
+        }
+
+        private int home(long tag) {
+            return (int) (tag >>> (24 - indexBits));
+        }
+
+        private ByteBuffer slab(long address) {
+            return slabs[slabNumber(address)];
+        }
+
+        private int offset(long address) {
+            return (int) (address % slabBytes);
+        }
+
+        private int slabNumber(long address) {
+            return (int) ((address / slabBytes) % SLABS_PER_SHARD);
+        }
+
+        /**
+         * @return logical address of the record of the word, -1 if it is not cached
+         */
+        private long find(char[] s, int len, int hash) {
+            long tag = tag(hash);
+            int mask = index.length - 1;
+            for (int slot = home(tag); index[slot] != 0; slot = (slot + 1) & mask) {
+                long entry = index[slot];
+                if ((entry >>> ADDRESS_BITS) != tag) {
+                    continue;
+                }
+                long address = (entry & ADDRESS_MASK) - 1;
+                ByteBuffer slab = slab(address);
+                int offset = offset(address);
+                if (slab.getShort(offset) != len) {
+                    continue;
+                }
+                int wordAt = offset + HEADER_BYTES;
+                boolean equal = true;
+                for (int i = 0; i < len && equal; i++) {
+                    equal = slab.getChar(wordAt + 2 * i) == s[i];
+                }
+                if (equal) {
+                    return address;
+                }
+            }
+            return -1;
+        }
+
+        int get(char[] s, int len, int hash) {
+            long address = find(s, len, hash);
+            if (address < 0) {
+                return -1;
+            }
+            ByteBuffer slab = slab(address);
+            int offset = offset(address);
+            int stemLen = slab.getShort(offset + 2);
+            int stemAt = offset + HEADER_BYTES + 2 * len;
+            for (int i = 0; i < stemLen; i++) {
+                s[i] = slab.getChar(stemAt + 2 * i);
+            }
+            return stemLen;
+        }
+
+        void put(char[] word, int wordLen, int hash, char[] stem, int stemLen) {
+            int recordBytes = HEADER_BYTES + 2 * (wordLen + stemLen);
+            if (recordBytes > slabBytes || wordLen > Short.MAX_VALUE || find(word, wordLen, hash) >= 0) {
+                return;
+            }
+            if (head + recordBytes > ADDRESS_MASK) {
+                clear();
+            }
+            if (offset(head) + recordBytes > slabBytes) {
+                head += slabBytes - offset(head);
+            }
+            while (count >= maxCount || head + recordBytes > tail + (long) SLABS_PER_SHARD * slabBytes) {
+                if (tail >= head) {
+                    // nothing left to evict, the index went out of sync with the slabs
+                    clear();
+                    break;
+                }
+                evictOldestSlab();
+            }
+            ByteBuffer slab = slab(head);
+            int offset = offset(head);
+            slab.putShort(offset, (short) wordLen);
+            slab.putShort(offset + 2, (short) stemLen);
+            slab.putInt(offset + 4, hash);
+            int wordAt = offset + HEADER_BYTES;
+            for (int i = 0; i < wordLen; i++) {
+                slab.putChar(wordAt + 2 * i, word[i]);
+            }
+            int stemAt = wordAt + 2 * wordLen;
+            for (int i = 0; i < stemLen; i++) {
+                slab.putChar(stemAt + 2 * i, stem[i]);
+            }
+            long tag = tag(hash);
+            int mask = index.length - 1;
+            int slot = home(tag);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = (tag << ADDRESS_BITS) | (head + 1);
+            count++;
+            slabEnd[slabNumber(head)] = offset + recordBytes;
+            head += recordBytes;
+        }
+
+        /**
+         * Passes the records of all live slabs, oldest first, to the visitor
+         */
+        void export(Visitor visitor) {
+            char[] word = new char[16];
+            char[] stem = new char[16];
+            for (long start = tail; start < head; start += slabBytes) {
+                int number = slabNumber(start);
+                ByteBuffer slab = slabs[number];
+                for (int offset = 0; offset < slabEnd[number]; ) {
+                    int wordLen = slab.getShort(offset);
+                    int stemLen = slab.getShort(offset + 2);
+                    if (word.length < wordLen) {
+                        word = new char[wordLen];
+                        stem = new char[wordLen];
+                    }
+                    int wordAt = offset + HEADER_BYTES;
+                    for (int i = 0; i < wordLen; i++) {
+                        word[i] = slab.getChar(wordAt + 2 * i);
+                    }
+                    int stemAt = wordAt + 2 * wordLen;
+                    for (int i = 0; i < stemLen; i++) {
+                        stem[i] = slab.getChar(stemAt + 2 * i);
+                    }
+                    visitor.visit(word, wordLen, stem, stemLen);
+                    offset += HEADER_BYTES + 2 * (wordLen + stemLen);
+                }
+            }
+        }
+
+        /**
+         * Drops all records of the slab at the tail and unlinks them from the index
+         */
+        private void evictOldestSlab() {
+            int number = slabNumber(tail);
+            ByteBuffer slab = slabs[number];
+            for (int offset = 0; offset < slabEnd[number]; ) {
+                int wordLen = slab.getShort(offset);
+                int stemLen = slab.getShort(offset + 2);
+                unlink(tag(slab.getInt(offset + 4)), tail + offset + 1);
+                offset += HEADER_BYTES + 2 * (wordLen + stemLen);
+            }
+            slabEnd[number] = 0;
+            tail += slabBytes;
+            if (head < tail) {
+                head = tail;
+            }
+        }
+
+        /**
+         * Removes the entry from the index, shifting back the entries probed past it
+         */
+        private void unlink(long tag, long storedAddress) {
+            int mask = index.length - 1;
+            long wanted = (tag << ADDRESS_BITS) | storedAddress;
+            int i = home(tag);
+            while (index[i] != wanted) {
+                if (index[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            index[i] = 0;
+            count--;
+            for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+                int home = home(index[j] >>> ADDRESS_BITS);
+                boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stays) {
+                    index[i] = index[j];
+                    index[j] = 0;
+                    i = j;
+                }
+            }
+        }
+
+        private void clear() {
+            Arrays.fill(index, 0);
+            Arrays.fill(slabEnd, 0);
+            head = 0;
+            tail = 0;
+            count = 0;
+        }
+    }
+}
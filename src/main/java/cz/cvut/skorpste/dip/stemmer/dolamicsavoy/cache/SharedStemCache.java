@@ -0,0 +1,123 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache;
+
+/**
+ * Bounded, thread safe {@link StemCache} shared by all TokenStreams of one factory.
+ * <p>The cache is split into independently locked segments. Every segment evicts
+ * with CLOCK and admits a new word only if it has been seen more often recently
+ * than the word it would replace, so the frequent head of the Zipf distribution
+ * is not pushed out by a stream of rare forms.</p>
+ */
+public final class SharedStemCache implements StemCache {
+    private static final int MAX_SEGMENTS = 64;
+    private static final int MIN_SEGMENT_SIZE = 256;
+
+    private final Segment[] segments;
+    private final int shift;
+
+    /**
+     * @param size maximal number of cached words
+     */
+    public SharedStemCache(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + size);
+        }
+        int count = 1;
+        while (count < MAX_SEGMENTS && (long) size / (count * 2) >= MIN_SEGMENT_SIZE) {
+            count *= 2;
+        }
+        segments = new Segment[count];
+        int segmentSize = (size + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+        shift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    private Segment segmentFor(int hash) {
+        // high bits pick the segment, low bits the slot inside of it
+        return shift == 32 ? segments[0] : segments[hash >>> shift];
+    }
+
+    public int get(char[] s, int len) {
+        int hash = StemTable.hash(s, len);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            segment.sketch.increment(hash);
+            int stemLen = segment.table.get(s, len, hash);
+            if (stemLen < 0) {
+                segment.misses++;
+            } else {
+                segment.hits++;
+            }
+            return stemLen;
+        }
+    }
+
+    public void put(char[] word, int wordLen, char[] stem, int stemLen) {
+        if (stemLen > wordLen) {
+            return;
+        }
+        int hash = StemTable.hash(word, wordLen);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            if (segment.table.isFull()
+                    && segment.sketch.frequency(hash) <= segment.sketch.frequency(segment.table.victimHash())) {
+                return;
+            }
+            segment.table.put(word, wordLen, hash, stem, stemLen);
+        }
+    }
+
+    public long getHits() {
+        long hits = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                hits += segment.hits;
+            }
+        }
+        return hits;
+    }
+
+    public long getMisses() {
+        long misses = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                misses += segment.misses;
+            }
+        }
+        return misses;
+    }
+
+    public void export(Visitor visitor) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.table.export(visitor);
+            }
+        }
+    }
+
+    /**
+     * @return number of cached words
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.table.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Segment {
+        final StemTable table;
+        final FrequencySketch sketch;
+        long hits;
+        long misses;
+
+        Segment(int size) {
+            table = new StemTable(size);
+            sketch = new FrequencySketch(size);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache;
+
+/**
+ * Cache of stems keyed by the raw term characters.
+ * <p>Lookups work directly on the term buffer, so a hit does not create any object.
+ * Only stems which are not longer than their words are cached, so a hit always fits
+ * into the buffer the word came in.</p>
+ */
+public interface StemCache {
+    /**
+     * Receives the cached entries, the buffers are only valid during the call
+     */
+    public interface Visitor {
+        public void visit(char[] word, int wordLen, char[] stem, int stemLen);
+    }
+
+    /**
+     * Looks up the stem of the word and writes it to the beginning of the buffer on a hit
+     * @param s buffer with the word
+     * @param len length of the word
+     * @return length of the stem, -1 if the word is not cached
+     */
+    public int get(char[] s, int len);
+
+    /**
+     * Remembers the stem of the word
+     * @param word buffer with the word
+     * @param wordLen length of the word
+     * @param stem buffer with the stem
+     * @param stemLen length of the stem
+     */
+    public void put(char[] word, int wordLen, char[] stem, int stemLen);
+
+    /**
+     * @return number of lookups which found the stem
+     */
+    public long getHits();
+
+    /**
+     * @return number of lookups which did not find the stem
+     */
+    public long getMisses();
+
+    /**
+     * Passes all cached entries to the visitor
+     */
+    public void export(Visitor visitor);
+}
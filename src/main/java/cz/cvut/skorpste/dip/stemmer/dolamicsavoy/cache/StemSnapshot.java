@@ -0,0 +1,169 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read only word to stem table memory mapped from a file written by {@link StemSnapshotWriter}.
+ * <p>The file is searched in place, opening it costs the same for any number of entries
+ * and the entries stay in the page cache shared by all cores of the JVM.</p>
+ * <p>File layout (big endian):</p>
+ * <pre>
+ * int magic, int version, short length + chars of the stemmer class name,
+ * int entry count, int slot count (power of two),
+ * slots: int hash, int record offset + 1 (0 for an empty slot),
+ * records: short word length, short stem length, word chars, stem chars
+ * </pre>
+ * <p>The hash is the one of {@link StemTable}, changing it requires a new {@link #VERSION}.</p>
+ */
+public final class StemSnapshot {
+    static final int MAGIC = 0x435a5353;
+    /**
+     * Version of the file format
+     */
+    public static final int VERSION = 1;
+    static final int SLOT_BYTES = 8;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int mask;
+    private final int slotsAt;
+    private final int recordsAt;
+
+    private StemSnapshot(ByteBuffer buffer, int count, int slots, int slotsAt) {
+        this.buffer = buffer;
+        this.count = count;
+        this.mask = slots - 1;
+        this.slotsAt = slotsAt;
+        this.recordsAt = slotsAt + slots * SLOT_BYTES;
+    }
+
+    /**
+     * Maps the snapshot file
+     * @param file snapshot file
+     * @param stemmer name of the stemmer class the stems have to come from
+     * @return the snapshot, null if the file does not exist or was written by another stemmer or format version
+     * @throws IOException if the file can not be read or is corrupted
+     */
+    public static StemSnapshot open(File file, String stemmer) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        ByteBuffer buffer;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Stem snapshot is too large: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            raf.close();
+        }
+        try {
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a stem snapshot: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                return null;
+            }
+            int nameLen = buffer.getShort(8);
+            int at = 10;
+            if (nameLen != stemmer.length()) {
+                return null;
+            }
+            for (int i = 0; i < nameLen; i++, at += 2) {
+                if (buffer.getChar(at) != stemmer.charAt(i)) {
+                    return null;
+                }
+            }
+            int count = buffer.getInt(at);
+            int slots = buffer.getInt(at + 4);
+            at += 8;
+            if (count < 0 || slots < 1 || Integer.bitCount(slots) != 1 || count >= slots
+                    || (long) at + (long) slots * SLOT_BYTES > buffer.limit()) {
+                throw new IOException("Corrupted stem snapshot: " + file);
+            }
+            return new StemSnapshot(buffer, count, slots, at);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted stem snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Looks up the stem of the word and writes it to the beginning of the buffer on a hit
+     * @param s buffer with the word
+     * @param len length of the word
+     * @return length of the stem, -1 if the word is not in the snapshot
+     */
+    public int get(char[] s, int len) {
+        int hash = StemTable.hash(s, len);
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int at = slotsAt + slot * SLOT_BYTES;
+            int record = buffer.getInt(at + 4);
+            if (record == 0) {
+                return -1;
+            }
+            if (buffer.getInt(at) != hash) {
+                continue;
+            }
+            int offset = recordsAt + record - 1;
+            if (buffer.getShort(offset) != len) {
+                continue;
+            }
+            int wordAt = offset + 4;
+            boolean equal = true;
+            for (int i = 0; i < len && equal; i++) {
+                equal = buffer.getChar(wordAt + 2 * i) == s[i];
+            }
+            if (equal) {
+                int stemLen = buffer.getShort(offset + 2);
+                int stemAt = wordAt + 2 * len;
+                for (int i = 0; i < stemLen; i++) {
+                    s[i] = buffer.getChar(stemAt + 2 * i);
+                }
+                return stemLen;
+            }
+        }
+    }
+
+    /**
+     * Passes all entries to the visitor
+     */
+    public void export(StemCache.Visitor visitor) {
+        char[] word = new char[16];
+        char[] stem = new char[16];
+        for (int slot = 0; slot <= mask; slot++) {
+            int record = buffer.getInt(slotsAt + slot * SLOT_BYTES + 4);
+            if (record == 0) {
+                continue;
+            }
+            int offset = recordsAt + record - 1;
+            int wordLen = buffer.getShort(offset);
+            int stemLen = buffer.getShort(offset + 2);
+            if (word.length < wordLen) {
+                word = new char[wordLen];
+                stem = new char[wordLen];
+            }
+            int wordAt = offset + 4;
+            for (int i = 0; i < wordLen; i++) {
+                word[i] = buffer.getChar(wordAt + 2 * i);
+            }
+            int stemAt = wordAt + 2 * wordLen;
+            for (int i = 0; i < stemLen; i++) {
+                stem[i] = buffer.getChar(stemAt + 2 * i);
+            }
+            visitor.visit(word, wordLen, stem, stemLen);
+        }
+    }
+
+    /**
+     * @return number of words in the snapshot
+     */
+    public int size() {
+        return count;
+    }
+}
@@ -0,0 +1,99 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects word to stem entries and writes them as a {@link StemSnapshot} file.
+ * <p>Entries are visited from caches and older snapshots, the first stem of a word wins
+ * and entries above the limit are dropped, so the hottest source should be exported first.</p>
+ */
+public final class StemSnapshotWriter implements StemCache.Visitor {
+    private final String stemmer;
+    private final int maxSize;
+    private final Map<String, String> entries = new LinkedHashMap<String, String>();
+
+    /**
+     * @param stemmer name of the stemmer class which produced the stems
+     * @param maxSize maximal number of written entries
+     */
+    public StemSnapshotWriter(String stemmer, int maxSize) {
+        if (stemmer.length() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Stemmer name is too long: " + stemmer);
+        }
+        this.stemmer = stemmer;
+        this.maxSize = maxSize;
+    }
+
+    public void visit(char[] word, int wordLen, char[] stem, int stemLen) {
+        if (entries.size() >= maxSize || wordLen > Short.MAX_VALUE || stemLen > wordLen) {
+            return;
+        }
+        String key = new String(word, 0, wordLen);
+        if (!entries.containsKey(key)) {
+            entries.put(key, new String(stem, 0, stemLen));
+        }
+    }
+
+    /**
+     * @return number of collected entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the collected entries, the file is replaced only when it is complete
+     */
+    public void write(File file) throws IOException {
+        int slots = Integer.highestOneBit(Math.max(1, entries.size()) * 2) << 1;
+        int[] hashes = new int[slots];
+        int[] records = new int[slots];
+        int recordBytes = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String word = entry.getKey();
+            int hash = StemTable.hash(word.toCharArray(), word.length());
+            int slot = hash & (slots - 1);
+            while (records[slot] != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            hashes[slot] = hash;
+            records[slot] = recordBytes + 1;
+            recordBytes += 4 + 2 * (word.length() + entry.getValue().length());
+            if (recordBytes < 0) {
+                throw new IOException("Too many entries for a stem snapshot: " + entries.size());
+            }
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            out.writeInt(StemSnapshot.MAGIC);
+            out.writeInt(StemSnapshot.VERSION);
+            out.writeShort(stemmer.length());
+            out.writeChars(stemmer);
+            out.writeInt(entries.size());
+            out.writeInt(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                out.writeInt(hashes[slot]);
+                out.writeInt(records[slot]);
+            }
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                out.writeShort(entry.getKey().length());
+                out.writeShort(entry.getValue().length());
+                out.writeChars(entry.getKey());
+                out.writeChars(entry.getValue());
+            }
+        } finally {
+            out.close();
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
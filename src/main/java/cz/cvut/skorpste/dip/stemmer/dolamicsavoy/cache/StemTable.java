@@ -0,0 +1,169 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache;
+
+import java.util.Arrays;
+
+/**
+ * Bounded open addressing table of word to stem entries with CLOCK eviction.
+ * Not thread safe, callers have to confine or lock it.
+ */
+final class StemTable {
+    private final int capacity;
+    private final int mask;
+    /**
+     * Linear probing index, entry + 1 or 0 for an empty slot
+     */
+    private final int[] index;
+    private final int[] hashes;
+    private final char[][] words;
+    private final char[][] stems;
+    private final boolean[] referenced;
+    private int size;
+    private int hand;
+
+    StemTable(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        int slots = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        mask = slots - 1;
+        index = new int[slots];
+        hashes = new int[capacity];
+        words = new char[capacity][];
+        stems = new char[capacity][];
+        referenced = new boolean[capacity];
+    }
+
+    static int hash(char[] s, int len) {
+        int h = 0;
+        for (int i = 0; i < len; i++) {
+            h = 31 * h + s[i];
+        }
+        // murmur3 finalizer, spreads the bits for masking and for the sketch
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private int find(char[] s, int len, int hash) {
+        for (int slot = hash & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = index[slot] - 1;
+            if (hashes[entry] == hash && equals(words[entry], s, len)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean equals(char[] word, char[] s, int len) {
+        if (word.length != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (word[i] != s[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the stem to the beginning of the buffer
+     * @return length of the stem, -1 if the word is not in the table
+     */
+    int get(char[] s, int len, int hash) {
+        int entry = find(s, len, hash);
+        if (entry < 0) {
+            return -1;
+        }
+        referenced[entry] = true;
+        char[] stem = stems[entry];
+        System.arraycopy(stem, 0, s, 0, stem.length);
+        return stem.length;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Moves the clock hand to the entry which is evicted by the next {@link #put} into a full table
+     * @return hash of that entry
+     */
+    int victimHash() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+        return hashes[hand];
+    }
+
+    /**
+     * Stores the entry, evicting the entry under the clock hand when the table is full
+     */
+    void put(char[] word, int wordLen, int hash, char[] stem, int stemLen) {
+        if (find(word, wordLen, hash) >= 0) {
+            return;
+        }
+        int entry;
+        if (size < capacity) {
+            entry = size++;
+        } else {
+            victimHash();
+            entry = hand;
+            hand = (hand + 1) % capacity;
+            unlink(entry);
+        }
+        hashes[entry] = hash;
+        words[entry] = Arrays.copyOf(word, wordLen);
+        stems[entry] = Arrays.copyOf(stem, stemLen);
+        referenced[entry] = false;
+        int slot = hash & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = entry + 1;
+    }
+
+    /**
+     * Removes the entry from the index, shifting back the entries probed past it
+     */
+    private void unlink(int entry) {
+        int i = hashes[entry] & mask;
+        while (index[i] != entry + 1) {
+            i = (i + 1) & mask;
+        }
+        index[i] = 0;
+        for (int j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            int home = hashes[index[j] - 1] & mask;
+            boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stays) {
+                index[i] = index[j];
+                index[j] = 0;
+                i = j;
+            }
+        }
+    }
+
+    void export(StemCache.Visitor visitor) {
+        for (int entry = 0; entry < size; entry++) {
+            visitor.visit(words[entry], words[entry].length, stems[entry], stems[entry].length);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(index, 0);
+        Arrays.fill(words, null);
+        Arrays.fill(stems, null);
+        Arrays.fill(referenced, false);
+        size = 0;
+        hand = 0;
+    }
+}
@@ -0,0 +1,53 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache;
+
+/**
+ * {@link StemCache} owned by a single TokenStream, so it needs no locking.
+ * When full, the least recently used entries are replaced (CLOCK).
+ */
+public final class StreamStemCache implements StemCache {
+    private final StemTable table;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param size maximal number of cached words
+     */
+    public StreamStemCache(int size) {
+        table = new StemTable(size);
+    }
+
+    public int get(char[] s, int len) {
+        int stemLen = table.get(s, len, StemTable.hash(s, len));
+        if (stemLen < 0) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return stemLen;
+    }
+
+    public void put(char[] word, int wordLen, char[] stem, int stemLen) {
+        if (stemLen <= wordLen) {
+            table.put(word, wordLen, StemTable.hash(word, wordLen), stem, stemLen);
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void export(Visitor visitor) {
+        table.export(visitor);
+    }
+
+    /**
+     * @return number of cached words
+     */
+    public int size() {
+        return table.size();
+    }
+}
@@ -0,0 +1,183 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.CharsRef;
+import org.apache.lucene.util.fst.CharSequenceOutputs;
+import org.apache.lucene.util.fst.FST;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Precomputed word form to stem mapping stored in a {@link FST}.
+ * <p>The input labels are the UTF-16 chars of the form. The output is not the stem itself
+ * but the number of chars cut from the end of the form (one char) followed by the chars appended
+ * after the cut, e.g. <code>kluci</code> stemmed to <code>kluk</code> maps to 2 and <code>k</code>. Most forms share
+ * a handful of such outputs, so the FST stays a few bytes per form.</p>
+ * <p>Dictionaries are created by {@link StemDictionaryBuilder}, every dictionary built on top of
+ * an older one is its next generation. The header names the stemmer of the stems,
+ * see {@link #stemmerName(String, Set)}, so a dictionary is not used with another one.</p>
+ */
+public final class StemDictionary {
+    static final String CODEC = "CzechStemDictionary";
+    static final int VERSION_START = 1;
+    static final int VERSION_GENERATIONS = 2;
+    static final int VERSION_STEMMER = 3;
+    static final int VERSION = VERSION_STEMMER;
+
+    /**
+     * null for an empty dictionary
+     */
+    private final FST<CharsRef> fst;
+    private final int size;
+    private final int generation;
+    /**
+     * "" for a dictionary written before the stemmer was stored
+     */
+    private final String stemmer;
+
+    StemDictionary(String stemmer, FST<CharsRef> fst, int size, int generation) {
+        this.stemmer = stemmer;
+        this.fst = fst;
+        this.size = size;
+        this.generation = generation;
+    }
+
+    /**
+     * Reads a dictionary written by {@link #write}
+     */
+    public static StemDictionary read(InputStream in) throws IOException {
+        InputStreamDataInput input = new InputStreamDataInput(in);
+        int version = CodecUtil.checkHeader(input, CODEC, VERSION_START, VERSION);
+        String stemmer = version >= VERSION_STEMMER ? input.readString() : "";
+        int size = input.readVInt();
+        int generation = version >= VERSION_GENERATIONS ? input.readVInt() : 0;
+        FST<CharsRef> fst = size == 0 ? null : new FST<CharsRef>(input, CharSequenceOutputs.getSingleton());
+        return new StemDictionary(stemmer, fst, size, generation);
+    }
+
+    public void write(OutputStream out) throws IOException {
+        OutputStreamDataOutput output = new OutputStreamDataOutput(out);
+        CodecUtil.writeHeader(output, CODEC, VERSION);
+        output.writeString(stemmer);
+        output.writeVInt(size);
+        output.writeVInt(generation);
+        if (fst != null) {
+            fst.save(output);
+        }
+    }
+
+    /**
+     * Name of a stemmer in the header of a dictionary
+     * @param implementation Light, Agressive or Helebrand, as by the <code>implementation</code> of the factories
+     * @param stages stages of the Agressive stemmer, null if all of them run
+     * @return the implementation followed by the stages if only some of them run
+     */
+    public static String stemmerName(String implementation, Set<CzechAgressiveCharStemmer.Stage> stages) {
+        if (stages == null || stages.equals(EnumSet.allOf(CzechAgressiveCharStemmer.Stage.class))) {
+            return implementation;
+        }
+        EnumSet<CzechAgressiveCharStemmer.Stage> ordered = EnumSet.noneOf(CzechAgressiveCharStemmer.Stage.class);
+        ordered.addAll(stages);
+        return implementation + ordered.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return name of the stemmer the dictionary was built by, see {@link #stemmerName(String, Set)},
+     * "" if the dictionary was written before the name was stored
+     */
+    public String getStemmer() {
+        return stemmer;
+    }
+
+    /**
+     * @return reader for {@link #get}, it must not be shared by threads
+     */
+    public FST.BytesReader getBytesReader() {
+        return fst == null ? null : fst.getBytesReader();
+    }
+
+    /**
+     * Looks up the form
+     * @param s buffer with the form
+     * @param len length of the form
+     * @param scratchArc reusable arc
+     * @param reader reader from {@link #getBytesReader()}
+     * @return number of chars to cut followed by the chars to append, null if the form is not in the dictionary
+     */
+    public CharsRef get(char[] s, int len, FST.Arc<CharsRef> scratchArc, FST.BytesReader reader) throws IOException {
+        if (fst == null) {
+            return null;
+        }
+        CharsRef pendingOutput = fst.outputs.getNoOutput();
+        fst.getFirstArc(scratchArc);
+        for (int i = 0; i < len; i++) {
+            if (fst.findTargetArc(s[i], scratchArc, scratchArc, reader) == null) {
+                return null;
+            }
+            pendingOutput = fst.outputs.add(pendingOutput, scratchArc.output);
+        }
+        if (!scratchArc.isFinal()) {
+            return null;
+        }
+        return fst.outputs.add(pendingOutput, scratchArc.nextFinalOutput);
+    }
+
+    /**
+     * Replaces the form in the term by its stem, the term buffer is enlarged if the stem is longer
+     * @param termAtt term with the form
+     * @param scratchArc reusable arc
+     * @param reader reader from {@link #getBytesReader()}
+     * @return true if the form is in the dictionary and was stemmed
+     */
+    public boolean stem(CharTermAttribute termAtt, FST.Arc<CharsRef> scratchArc, FST.BytesReader reader)
+            throws IOException {
+        final int len = termAtt.length();
+        final CharsRef stem = get(termAtt.buffer(), len, scratchArc, reader);
+        if (stem == null) {
+            return false;
+        }
+        final int keep = len - stem.chars[stem.offset];
+        final int newlen = keep + stem.length - 1;
+        final char[] buffer = termAtt.resizeBuffer(newlen);
+        System.arraycopy(stem.chars, stem.offset + 1, buffer, keep, stem.length - 1);
+        termAtt.setLength(newlen);
+        return true;
+    }
+
+    /**
+     * @return number of forms
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return 0 for a dictionary built from scratch, the generation of the base dictionary + 1 otherwise
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the FST, null for an empty dictionary
+     */
+    FST<CharsRef> getFst() {
+        return fst;
+    }
+
+    /**
+     * @return bytes taken by the FST
+     */
+    public long ramBytesUsed() {
+        return fst == null ? 0 : fst.ramBytesUsed();
+    }
+}
@@ -0,0 +1,250 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechStemmer;
+import org.apache.lucene.util.CharsRef;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.CharSequenceOutputs;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.IntsRefFSTEnum;
+import org.apache.lucene.util.fst.Util;
+import org.tartarus.snowball.SnowballProgram;
+import org.tartarus.snowball.ext.CzechHelebrandStemmer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds a {@link StemDictionary} by running a stemmer over a word list or a corpus.
+ * <p>The text is split on everything but letters and lowercased like by
+ * {@link org.apache.lucene.analysis.core.LowerCaseFilter}, every distinct form is stemmed once.</p>
+ * <pre>
+ * java cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionaryBuilder Agressive corpus.txt stems.fst
+ * </pre>
+ * <p>The first argument is the stemmer: <code>Light</code>, <code>Agressive</code> or <code>Helebrand</code>.
+ * The Agressive stemmer with only some of its stages takes them after a colon,
+ * e.g. <code>Agressive:case,possessive</code>.</p>
+ * <p>The header of the dictionary names the stemmer as {@link StemDictionary#stemmerName} does,
+ * e.g. <code>Agressive[case, possessive]</code> for the stages above. The dictionary is used only
+ * by a factory of the same stemmer, a <code>CzechStemFilterFactory</code> for Light and Agressive
+ * and a <code>CzechHelebrandStemFilterFactory</code> for Helebrand.</p>
+ * <p>A new generation of an existing dictionary is built from the new documents only.
+ * Just the forms missing in the base dictionary are stemmed and merged with it,
+ * the old corpus is not needed:</p>
+ * <pre>
+ * java cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionaryBuilder Agressive delta.txt stems.1.fst stems.fst
+ * </pre>
+ */
+public final class StemDictionaryBuilder {
+    /**
+     * null when building from scratch
+     */
+    private final StemDictionary base;
+    private final String stemmer;
+    private final FST.Arc<CharsRef> scratchArc = new FST.Arc<CharsRef>();
+    private final FST.BytesReader baseReader;
+    /**
+     * New forms, sorted by UTF-16 chars, the order the FST needs
+     */
+    private final TreeMap<String, String> entries = new TreeMap<String, String>();
+
+    /**
+     * @param stemmer name of the stemmer of the stems, see {@link StemDictionary#stemmerName}
+     */
+    public StemDictionaryBuilder(String stemmer) {
+        this(stemmer, null);
+    }
+
+    /**
+     * @param stemmer name of the stemmer of the stems, see {@link StemDictionary#stemmerName}
+     * @param base dictionary the new generation is built on, null to build from scratch
+     * @throws IllegalArgumentException if the base dictionary was built by another stemmer
+     */
+    public StemDictionaryBuilder(String stemmer, StemDictionary base) {
+        if (base != null && !base.getStemmer().equals(stemmer)) {
+            throw new IllegalArgumentException("Base dictionary was built by the stemmer '" + base.getStemmer()
+                    + "', not by " + stemmer);
+        }
+        this.stemmer = stemmer;
+        this.base = base;
+        this.baseReader = base == null ? null : base.getBytesReader();
+    }
+
+    private boolean contains(String word) throws IOException {
+        if (entries.containsKey(word)) {
+            return true;
+        }
+        return baseReader != null && base.get(word.toCharArray(), word.length(), scratchArc, baseReader) != null;
+    }
+
+    /**
+     * Adds the form, a form which is already added or in the base dictionary keeps its stem
+     */
+    public void add(String word, String stem) throws IOException {
+        if (!contains(word)) {
+            entries.put(word, stem);
+        }
+    }
+
+    /**
+     * Stems all forms of the text with one of the Dolamic stemmers
+     */
+    public void addWords(Reader reader, CzechStemmer stemmer) throws IOException {
+        StringBuilder word = new StringBuilder();
+        int c;
+        do {
+            c = reader.read();
+            if (c >= 0 && Character.isLetter(c)) {
+                word.append(Character.toLowerCase((char) c));
+            } else if (word.length() > 0) {
+                String form = word.toString();
+                if (!contains(form)) {
+                    entries.put(form, stemmer.stem(form));
+                }
+                word.setLength(0);
+            }
+        } while (c >= 0);
+    }
+
+    /**
+     * Stems all forms of the text with a Snowball stemmer such as {@link CzechHelebrandStemmer}
+     */
+    public void addWords(Reader reader, final SnowballProgram stemmer) throws IOException {
+        addWords(reader, new CzechStemmer() {
+            public String stem(String input) {
+                stemmer.setCurrent(input);
+                stemmer.stem();
+                return stemmer.getCurrent();
+            }
+        });
+    }
+
+    /**
+     * @return number of forms added to this generation, the forms of the base dictionary are not counted
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Builds the dictionary, merging the new forms into the base dictionary in one sorted pass
+     */
+    public StemDictionary build() throws IOException {
+        CharSequenceOutputs outputs = CharSequenceOutputs.getSingleton();
+        Builder<CharsRef> builder = new Builder<CharsRef>(FST.INPUT_TYPE.BYTE2, outputs);
+        IntsRefBuilder scratchInts = new IntsRefBuilder();
+        FST<CharsRef> baseFst = base == null ? null : base.getFst();
+        IntsRefFSTEnum<CharsRef> baseEnum = baseFst == null ? null : new IntsRefFSTEnum<CharsRef>(baseFst);
+        IntsRefFSTEnum.InputOutput<CharsRef> baseEntry = baseEnum == null ? null : baseEnum.next();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String word = entry.getKey();
+            IntsRef input = Util.toUTF16(word, scratchInts);
+            // new forms are never in the base, so the inputs do not repeat
+            while (baseEntry != null && baseEntry.input.compareTo(input) < 0) {
+                builder.add(baseEntry.input, baseEntry.output);
+                baseEntry = baseEnum.next();
+            }
+            builder.add(input, encode(word, entry.getValue()));
+        }
+        while (baseEntry != null) {
+            builder.add(baseEntry.input, baseEntry.output);
+            baseEntry = baseEnum.next();
+        }
+        int size = (base == null ? 0 : base.size()) + entries.size();
+        int generation = base == null ? 0 : base.getGeneration() + 1;
+        return new StemDictionary(stemmer, builder.finish(), size, generation);
+    }
+
+    /**
+     * @return number of chars cut from the end of the word followed by the chars appended to get the stem
+     */
+    static CharsRef encode(String word, String stem) {
+        int keep = 0;
+        int max = Math.min(word.length(), stem.length());
+        while (keep < max && word.charAt(keep) == stem.charAt(keep)) {
+            keep++;
+        }
+        char[] output = new char[1 + stem.length() - keep];
+        output[0] = (char) (word.length() - keep);
+        stem.getChars(keep, stem.length(), output, 1);
+        return new CharsRef(output, 0, output.length);
+    }
+
+    /**
+     * Usage: <code>StemDictionaryBuilder Light|Agressive[:stages]|Helebrand input.txt output.fst [base.fst]</code>,
+     * the input is read as UTF-8.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("Usage: StemDictionaryBuilder Light|Agressive[:stages]|Helebrand input.txt output.fst [base.fst]");
+            System.exit(1);
+        }
+        StemDictionary base = null;
+        if (args.length == 4) {
+            InputStream in = new BufferedInputStream(new FileInputStream(args[3]));
+            try {
+                base = StemDictionary.read(in);
+            } finally {
+                in.close();
+            }
+        }
+        String implementation = args[0];
+        EnumSet<CzechAgressiveCharStemmer.Stage> stages = null;
+        int colon = args[0].indexOf(':');
+        if (colon >= 0) {
+            implementation = args[0].substring(0, colon);
+            if (!"Agressive".equals(implementation)) {
+                throw new IllegalArgumentException("stages can be selected only for the Agressive implementation");
+            }
+            stages = CzechAgressiveCharStemmer.Stage.parse(Arrays.asList(args[0].substring(colon + 1).split(",")));
+            if (stages.isEmpty()) {
+                throw new IllegalArgumentException("stages must not be empty");
+            }
+        }
+        StemDictionaryBuilder dictionaryBuilder = new StemDictionaryBuilder(StemDictionary.stemmerName(implementation, stages), base);
+        Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(args[1]), StandardCharsets.UTF_8));
+        try {
+            if ("Helebrand".equals(implementation)) {
+                dictionaryBuilder.addWords(reader, new CzechHelebrandStemmer());
+            } else if (stages != null) {
+                final CzechAgressiveCharStemmer stemmer = new CzechAgressiveCharStemmer(stages);
+                dictionaryBuilder.addWords(reader, new CzechStemmer() {
+                    public String stem(String input) {
+                        char[] buffer = input.toCharArray();
+                        return new String(buffer, 0, stemmer.stem(buffer, buffer.length));
+                    }
+                });
+            } else {
+                String className = "cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.Czech" + implementation + "Stemmer";
+                CzechStemmer stemmer = Class.forName(className).asSubclass(CzechStemmer.class).newInstance();
+                dictionaryBuilder.addWords(reader, stemmer);
+            }
+        } finally {
+            reader.close();
+        }
+        StemDictionary dictionary = dictionaryBuilder.build();
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(args[2]));
+        try {
+            dictionary.write(out);
+        } finally {
+            out.close();
+        }
+        System.out.println("generation " + dictionary.getGeneration() + ": " + dictionaryBuilder.size() + " new forms, "
+                + dictionary.size() + " forms, " + dictionary.ramBytesUsed() + " bytes");
+    }
+}
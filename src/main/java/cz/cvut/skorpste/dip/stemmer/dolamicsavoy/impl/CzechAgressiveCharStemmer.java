@@ -0,0 +1,207 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Port of {@link CzechAgressiveStemmer} to {@link CzechCharStemmer}.
+ * Removes case endings form nouns and adjectives, possesive adj. endings from names,
+ * diminutive, augmentative, comparative sufixes and derivational sufixes from nouns
+ * and takes care of palatalisation directly in the term buffer.
+ * The six stages are compiled {@link SuffixTable}s run by a single {@link StageEngine},
+ * a stemmer can be limited to some of the {@link Stage}s.
+ */
+public class CzechAgressiveCharStemmer implements CzechCharStemmer {
+
+    static final SuffixTable PALATALISE = CzechLightCharStemmer.palatalise("agressive");
+
+    static final SuffixTable POSSESSIVES = CzechLightCharStemmer.possessives("agressive", PALATALISE);
+
+    /**
+     * Case endings from nouns and adjectives
+     */
+    static final SuffixTable CASE = new SuffixTable.Builder("agressive.case")
+            .remove(7, 5, "atech")
+            .remove(6, 3, PALATALISE, "\u011btem")                                                  //-ětem
+            .remove(6, 4, "at\u016fm")                                                              //-atům
+            .remove(5, 2, PALATALISE, "ech", "ich", "\u00edch")                                     //-ích
+            .remove(5, 2, PALATALISE, "\u00e9ho", "\u011bmi", "emi", "\u00e9mu", "eti",             //-ého, -ěmi, -ému
+                    "iho", "\u00edho", "\u00edmi", "imu")                                           //-ího, -ími
+            .remove(5, 3, "\u00e1ch", "ata", "aty", "\u00fdch", "ama", "ami", "ov\u00e9", "ovi",    //-ách, -ých, -ové
+                    "\u00fdmi")                                                                     //-ými
+            .remove(4, 1, PALATALISE, "em")
+            .remove(4, 2, PALATALISE, "es", "\u00e9m", "\u00edm")                                  //-ém, -ím
+            .remove(4, 2, "\u016fm")                                                                //-ům
+            .remove(4, 2, "at", "\u00e1m", "os", "us", "\u00fdm", "mi", "ou")                       //-ám, -ým
+            .remove(3, 0, PALATALISE, "e", "i", "\u00ed", "\u011b")                                 //-í, -ě
+            .remove(3, 1, "u", "y", "\u016f", "a", "o", "\u00e1", "\u00e9", "\u00fd")               //-ů, -á, -é, -ý
+            .build();
+
+    /**
+     * Comparative endings -ejš- and -ějš-
+     */
+    static final SuffixTable COMPARATIVE = new SuffixTable.Builder("agressive.comparative")
+            .remove(5, 2, PALATALISE, "ej\u0161", "\u011bj\u0161")                                  //-ejš, -ějš
+            .build();
+
+    /**
+     * Diminutive endings.
+     * -ačk is written as "au010dk" in CzechAgressiveStemmer and never matches,
+     * so it is left out to keep the stems identical
+     */
+    static final SuffixTable DIMINUTIVE = new SuffixTable.Builder("agressive.diminutive")
+            .remove(7, 5, "ou\u0161ek")                                                              //-oušek
+            .remove(6, 3, PALATALISE, "e\u010dek", "\u00e9\u010dek", "i\u010dek", "\u00ed\u010dek",  //-eček, -éček, -iček, -íček
+                    "enek", "\u00e9nek", "inek", "\u00ednek")                                        //-ének, -ínek
+            .remove(6, 4, "\u00e1\u010dek", "a\u010dek", "o\u010dek", "u\u010dek",                   //-áček, -aček, -oček, -uček
+                    "anek", "onek", "unek", "\u00e1nek")                                             //-ánek
+            .remove(5, 3, PALATALISE, "e\u010dk", "\u00e9\u010dk", "i\u010dk", "\u00ed\u010dk",      //-ečk, -éčk, -ičk, -íčk
+                    "enk", "\u00e9nk", "ink", "\u00ednk")                                            //-énk, -ínk
+            .remove(5, 3, "\u00e1\u010dk", "o\u010dk", "u\u010dk", "ank", "onk", "unk")              //-áčk, -očk, -učk
+            .remove(5, 3, "\u00e1tk", "\u00e1nk", "u\u0161k")                                        //-átk, -ánk, -ušk
+            .remove(4, 1, PALATALISE, "ek", "\u00e9k", "\u00edk", "ik")                              //-ék, -ík
+            .remove(4, 1, "\u00e1k", "ak", "ok", "uk")                                               //-ák
+            .remove(3, 1, "k")
+            .build();
+
+    /**
+     * Augmentative endings.
+     * -ák is written as "\00e1k" in CzechAgressiveStemmer and never matches,
+     * so it is left out to keep the stems identical
+     */
+    static final SuffixTable AUGMENTATIVE = new SuffixTable.Builder("agressive.augmentative")
+            .remove(6, 4, "ajzn")
+            .remove(5, 2, PALATALISE, "izn", "isk")
+            .build();
+
+    /**
+     * Derivational sufixes from nouns.
+     * -ovík is compared to a five letter slice by CzechAgressiveStemmer and never matches,
+     * so it is left out to keep the stems identical
+     */
+    static final SuffixTable DERIVATIONAL = new SuffixTable.Builder("agressive.derivational")
+            .remove(8, 6, "obinec")
+            .remove(7, 4, PALATALISE, "ion\u00e1\u0159")                                            //-ionář
+            .remove(7, 5, "ovisk", "ovstv", "ovi\u0161t", "ovn\u00edk")                              //-ovišt, -ovník
+            .remove(6, 4, "\u00e1sek", "loun", "nost", "teln", "ovec", "ovtv", "ovin", "\u0161tin")  //-ásek, -štin
+            .remove(6, 3, PALATALISE, "enic", "inec", "itel")
+            .remove(5, 3, "\u00e1rn")                                                                //-árn
+            .remove(5, 2, PALATALISE, "\u011bnk")                                                    //-ěnk
+            .remove(5, 2, PALATALISE, "i\u00e1n", "ist", "isk", "i\u0161t", "itb", "\u00edrn")       //-ián, -išt, -írn
+            .remove(5, 3, "och", "ost", "ovn", "oun", "out", "ou\u0161")                             //-ouš
+            .remove(5, 3, "u\u0161k")                                                                //-ušk
+            .remove(5, 3, "kyn", "\u010dan", "k\u00e1\u0159", "n\u00e9\u0159", "n\u00edk", "ctv", "stv") //-čan, -kář, -néř, -ník
+            .remove(4, 2, "\u00e1\u010d", "a\u010d", "\u00e1n", "an", "\u00e1\u0159", "as")          //-áč, -ač, -án, -ář
+            .remove(4, 1, PALATALISE, "ec", "en", "\u011bn", "\u00e9\u0159")                         //-ěn, -éř
+            .remove(4, 1, PALATALISE, "\u00ed\u0159", "ic", "in", "\u00edn", "it", "iv")             //-íř, -ín
+            .remove(4, 2, "ob", "ot", "ov", "o\u0148")                                               //-oň
+            .remove(4, 2, "ul")
+            .remove(4, 2, "yn")
+            .remove(4, 2, "\u010dk", "\u010dn", "dl", "nk", "tv", "tk", "vk")                        //-čk, -čn
+            .remove(3, 1, "c", "\u010d", "k", "l", "n", "t")                                         //-č
+            .build();
+
+    /**
+     * Stages of the stemmer, they always run in this order
+     */
+    public enum Stage {
+        CASE,           //removes case endings from nouns and adjectives
+        POSSESSIVE,     //removes possesive endings from names -ov- and -in-
+        COMPARATIVE,    //removes comparative endings
+        DIMINUTIVE,     //removes diminutive endings
+        AUGMENTATIVE,   //removes augmentatives endings
+        DERIVATIONAL;   //removes derivational sufixes from nouns
+
+        /**
+         * @param names names of stages in any case, e.g. <code>case</code>
+         * @return the stages
+         * @throws IllegalArgumentException if a name is not a stage
+         */
+        public static EnumSet<Stage> parse(Iterable<String> names) {
+            EnumSet<Stage> stages = EnumSet.noneOf(Stage.class);
+            for (String name : names) {
+                try {
+                    stages.add(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown stage " + name + ", expected some of "
+                            + Arrays.toString(values()).toLowerCase(Locale.ROOT));
+                }
+            }
+            return stages;
+        }
+    }
+
+    /**
+     * Table of every {@link Stage}, by its ordinal
+     */
+    private static final SuffixTable[] TABLES = {
+            CASE,
+            POSSESSIVES,
+            COMPARATIVE,
+            DIMINUTIVE,
+            AUGMENTATIVE,
+            DERIVATIONAL
+    };
+
+    private static final StageEngine STAGES = new StageEngine("Agressive", names(EnumSet.allOf(Stage.class)), TABLES);
+
+    private final StageEngine stages;
+
+    /**
+     * Default constructor
+     */
+    public CzechAgressiveCharStemmer() {
+        stages = STAGES;
+    } // constructor
+
+    /**
+     * Stemmer running only the given stages, the others are not even looked at
+     * @param stages stages to run, in the order of {@link Stage}
+     */
+    public CzechAgressiveCharStemmer(Set<Stage> stages) {
+        this(stages, null);
+    }
+
+    /**
+     * Stemmer with the tables laid out by a profile, it gives the same stems as the default one
+     * @param profile counts of the rules on a corpus
+     */
+    public CzechAgressiveCharStemmer(RuleProfile profile) {
+        this(EnumSet.allOf(Stage.class), profile);
+    }
+
+    /**
+     * @param stages stages to run, in the order of {@link Stage}
+     * @param profile counts of the rules the tables are laid out by, null to keep them as they are
+     */
+    public CzechAgressiveCharStemmer(Set<Stage> stages, RuleProfile profile) {
+        EnumSet<Stage> ordered = EnumSet.noneOf(Stage.class);
+        ordered.addAll(stages);
+        List<SuffixTable> selected = new ArrayList<SuffixTable>();
+        for (Stage stage : ordered) {
+            selected.add(TABLES[stage.ordinal()].reorder(profile));
+        }
+        this.stages = new StageEngine("Agressive", names(ordered), selected.toArray(new SuffixTable[selected.size()]));
+    }
+
+    private static String[] names(EnumSet<Stage> stages) {
+        String[] names = new String[stages.size()];
+        int i = 0;
+        for (Stage stage : stages) {
+            names[i++] = stage.name().toLowerCase(Locale.ROOT);
+        }
+        return names;
+    }
+
+    public int stem(char[] s, int len) {
+        //
+        StageEngine.lowerCase(s, len);
+        // stemming...
+        return stages.run(s, len);
+    }
+
+}
@@ -7,11 +7,6 @@ package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
  *         takes care of palatalisation
  */
 public class CzechAgressiveStemmer implements CzechStemmer {
-    /**
-     * A buffer of the current word being stemmed
-     */
-    private StringBuffer sb = new StringBuffer();
-
     /**
      * Default constructor
      */
@@ -19,6 +14,16 @@ public class CzechAgressiveStemmer implements CzechStemmer {
     } // constructor
 
     public String stem(String input) {
+        return stem(input, new StringBuffer(input.length()));
+    }
+
+    /**
+     * Same as {@link CzechLightStemmer#stem(String, StringBuffer)}
+     * @param input word to stem
+     * @param sb working buffer of the calling thread
+     * @return the stem
+     */
+    public String stem(String input, StringBuffer sb) {
         //
         input = input.toLowerCase();
         //reset string buffer
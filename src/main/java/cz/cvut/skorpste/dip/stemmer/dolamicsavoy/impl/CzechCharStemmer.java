@@ -0,0 +1,20 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
+
+/**
+ * Char buffer based variant of {@link CzechStemmer}.
+ * The word is stemmed in place, so no intermediate strings are created.
+ * Implementations keep no state, the only working memory is the buffer of the caller,
+ * so {@link cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory} shares one instance
+ * among all its filters.
+ */
+public interface CzechCharStemmer {
+    /**
+     * Stems the word held in the beginning of the buffer.
+     * The word is lowercased like by {@link String#toLowerCase()} in the {@link CzechStemmer} of the same algorithm,
+     * except that the word keeps its length: U+0130 outside the Turkish locales becomes a single 'i'.
+     * @param s buffer with the word, stem is written back to its beginning
+     * @param len length of the word
+     * @return length of the stem
+     */
+    public int stem(char[] s, int len);
+}
@@ -0,0 +1,94 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
+
+/**
+ * Port of {@link CzechLightStemmer} to {@link CzechCharStemmer}.
+ * Removes case endings form nouns and adjetives, possesive adj. endings from names
+ * and takes care of palatalisation directly in the term buffer.
+ * The rules are compiled into {@link SuffixTable}s, so each of them is resolved by a single backward walk.
+ */
+public class CzechLightCharStemmer implements CzechCharStemmer {
+
+    static final SuffixTable PALATALISE = palatalise("light");
+
+    static final SuffixTable POSSESSIVES = possessives("light", PALATALISE);
+
+    /**
+     * Case endings from nouns and adjectives
+     */
+    static final SuffixTable CASE = new SuffixTable.Builder("light.case")
+            .remove(7, 5, "atech")
+            .remove(6, 3, PALATALISE, "\u011btem")                                                  //-ětem
+            .remove(6, 4, "at\u016fm")                                                              //-atům
+            .remove(5, 2, PALATALISE, "ech", "ich", "\u00edch")                                     //-ích
+            .remove(5, 2, PALATALISE, "\u00e9ho", "\u011bmi", "emi", "\u00e9mu", "\u011bte",        //-ého, -ěmi, -ému, -ěte
+                    "\u011bti", "iho", "\u00edho", "\u00edmi", "imu")                               //-ěti, -ího, -ími
+            .remove(5, 3, "\u00e1ch", "ata", "aty", "\u00fdch", "ama", "ami", "ov\u00e9", "ovi",    //-ách, -ých, -ové
+                    "\u00fdmi")                                                                     //-ými
+            .remove(4, 1, PALATALISE, "em")
+            .remove(4, 2, PALATALISE, "es", "\u00e9m", "\u00edm")                                  //-ém, -ím
+            .remove(4, 2, "\u016fm")                                                                //-ům
+            .remove(4, 2, "at", "\u00e1m", "os", "us", "\u00fdm", "mi", "ou")                       //-ám, -ým
+            .remove(3, 0, PALATALISE, "e", "i", "\u00ed", "\u011b")                                 //-í, -ě
+            .remove(3, 1, "u", "y", "\u016f", "a", "o", "\u00e1", "\u00e9", "\u00fd")               //-ů, -á, -é, -ý
+            .build();
+
+    /**
+     * -ci, -ce, -či, -če to -k, -zi, -ze, -ži, -že to -h, -čtě, -čti, -čtí to -ck, otherwise drops the last letter.
+     * -ště, -šti and -ští to -sk is never applied by CzechLightStemmer,
+     * which compares these three letters to a two letter slice,
+     * so it is left out to keep the stems identical
+     * @param stemmer stemmer the table is named after, every stemmer builds its own to have its own counts
+     */
+    static SuffixTable palatalise(String stemmer) {
+        return new SuffixTable.Builder(stemmer + ".palatalise")
+                .replace(0, 2, "k", "ci", "ce", "\u010di", "\u010de")
+                .replace(0, 2, "h", "zi", "ze", "\u017ei", "\u017ee")
+                .replace(0, 3, "ck", "\u010dt\u011b", "\u010dti", "\u010dt\u00ed")
+                .fallback(1)
+                .build();
+    }
+
+    /**
+     * Possesive endings from names -ov- and -in-
+     * @param stemmer stemmer the table is named after, every stemmer builds its own to have its own counts
+     * @param palatalise palatalisation table of the stemmer
+     */
+    static SuffixTable possessives(String stemmer, SuffixTable palatalise) {
+        return new SuffixTable.Builder(stemmer + ".possessive")
+                .remove(5, 2, "ov", "\u016fv")
+                .remove(5, 1, palatalise, "in")
+                .build();
+    }
+
+    private static final String[] STAGE_NAMES = { "case", "possessive" };
+
+    private static final StageEngine STAGES = new StageEngine("Light", STAGE_NAMES,
+            CASE,           //removes case endings from nouns and adjectives
+            POSSESSIVES);   //removes possesive endings from names -ov- and -in-
+
+    private final StageEngine stages;
+
+    /**
+     * Default constructor
+     */
+    public CzechLightCharStemmer() {
+        stages = STAGES;
+    } // constructor
+
+    /**
+     * Stemmer with the tables laid out by a profile, it gives the same stems as the default one
+     * @param profile counts of the rules on a corpus
+     */
+    public CzechLightCharStemmer(RuleProfile profile) {
+        stages = new StageEngine("Light", STAGE_NAMES, CASE.reorder(profile), POSSESSIVES.reorder(profile));
+    }
+
+    public int stem(char[] s, int len) {
+        //
+        StageEngine.lowerCase(s, len);
+
+        // stemming...
+        return stages.run(s, len);
+    }
+
+}
@@ -8,12 +8,6 @@ package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
  */
 public class CzechLightStemmer implements CzechStemmer {
 
-    /**
-     * A buffer of the current word being stemmed
-     */
-    private StringBuffer sb = new StringBuffer();
-
-
     /**
      * Default constructor
      */
@@ -21,6 +15,17 @@ public class CzechLightStemmer implements CzechStemmer {
     } // constructor
 
     public String stem(String input) {
+        return stem(input, new StringBuffer(input.length()));
+    }
+
+    /**
+     * Stems the input in a buffer of the caller, the stemmer itself keeps no state
+     * and can be shared by threads as long as each of them has its own buffer
+     * @param input word to stem
+     * @param sb working buffer, its content is replaced
+     * @return the stem
+     */
+    public String stem(String input, StringBuffer sb) {
 
         //
         input = input.toLowerCase();
@@ -2,6 +2,7 @@ package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
 
 /**
  * Created by stopka on 4.3.15.
+ * The implementations of this package keep no state between calls, so one instance can be used by several threads.
  */
 public interface CzechStemmer {
     public String stem(String input);
@@ -0,0 +1,141 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * How often the suffixes of the stemming rules were tested and fired, per {@link SuffixTable}.
+ * <p>With <code>-Dcz.cvut.skorpste.dip.stemmer.ruleProfile.collect=true</code> all tables count their
+ * suffixes and {@link #collected()} returns the counts so far. {@link #COLLECT} is a constant,
+ * so without the property the counting is removed by the JIT. A suffix is tested whenever
+ * the backward walk over a word reaches it, and fired when a rule of it was applied;
+ * for the empty suffix the counts are the words the table saw and the words no rule matched.
+ * The tables are named after the stemmer, e.g. <code>light.possessive</code> and <code>agressive.possessive</code>,
+ * so the rules both stemmers share are counted for each of them.</p>
+ * <p>A profile is saved as lines of <code>table suffix tested fired</code> separated by tabs
+ * and given to the stemmers, which then lay their tables out by it, see {@link SuffixTable#reorder(RuleProfile)}.</p>
+ */
+public final class RuleProfile {
+    public static final boolean COLLECT = Boolean.getBoolean("cz.cvut.skorpste.dip.stemmer.ruleProfile.collect");
+
+    /**
+     * Tables built by a {@link SuffixTable.Builder}, a fixed set of static tables of the stemmers;
+     * the reordered copies count to them
+     */
+    private static final List<SuffixTable> TABLES = Collections.synchronizedList(new ArrayList<SuffixTable>());
+
+    /**
+     * Table name to suffix to tested and fired counts
+     */
+    private final Map<String, Map<String, long[]>> counts = new TreeMap<String, Map<String, long[]>>();
+
+    static void register(SuffixTable table) {
+        TABLES.add(table);
+    }
+
+    /**
+     * @return counts of all tables since the start, empty unless {@link #COLLECT}
+     */
+    public static RuleProfile collected() {
+        RuleProfile profile = new RuleProfile();
+        synchronized (TABLES) {
+            for (SuffixTable table : TABLES) {
+                table.exportCounts(profile);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * Adds counts of a suffix to the ones already in the profile
+     */
+    public void add(String table, String suffix, long tested, long fired) {
+        Map<String, long[]> suffixes = counts.get(table);
+        if (suffixes == null) {
+            suffixes = new TreeMap<String, long[]>();
+            counts.put(table, suffixes);
+        }
+        long[] count = suffixes.get(suffix);
+        if (count == null) {
+            count = new long[2];
+            suffixes.put(suffix, count);
+        }
+        count[0] += tested;
+        count[1] += fired;
+    }
+
+    public Set<String> getTables() {
+        return Collections.unmodifiableSet(counts.keySet());
+    }
+
+    public boolean hasTable(String table) {
+        return counts.containsKey(table);
+    }
+
+    /**
+     * @return suffixes of the table with any counts
+     */
+    public Set<String> getSuffixes(String table) {
+        Map<String, long[]> suffixes = counts.get(table);
+        return suffixes == null ? Collections.<String>emptySet() : Collections.unmodifiableSet(suffixes.keySet());
+    }
+
+    public long getTested(String table, String suffix) {
+        return get(table, suffix, 0);
+    }
+
+    public long getFired(String table, String suffix) {
+        return get(table, suffix, 1);
+    }
+
+    private long get(String table, String suffix, int i) {
+        Map<String, long[]> suffixes = counts.get(table);
+        long[] count = suffixes == null ? null : suffixes.get(suffix);
+        return count == null ? 0 : count[i];
+    }
+
+    public void write(Writer out) throws IOException {
+        out.write("# table\tsuffix\ttested\tfired\n");
+        for (Map.Entry<String, Map<String, long[]>> table : counts.entrySet()) {
+            for (Map.Entry<String, long[]> suffix : table.getValue().entrySet()) {
+                out.write(table.getKey() + "\t" + suffix.getKey() + "\t" + suffix.getValue()[0] + "\t" + suffix.getValue()[1] + "\n");
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a profile written by {@link #write(Writer)}, counts of the same suffix are summed
+     * @throws IOException if a line is malformed
+     */
+    public static RuleProfile read(Reader in) throws IOException {
+        RuleProfile profile = new RuleProfile();
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            try {
+                if (fields.length != 4) {
+                    throw new NumberFormatException("expected 4 fields");
+                }
+                profile.add(fields[0], fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed rule profile line " + number + ": " + line, e);
+            }
+        }
+        return profile;
+    }
+}
@@ -0,0 +1,114 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
+
+import cz.cvut.skorpste.dip.stemmer.trace.StemTrace;
+
+import java.util.Locale;
+
+/**
+ * Runs a fixed sequence of stemming stages over one mutable char buffer.
+ * <p>Every stage is a compiled {@link SuffixTable}. A stage looks at the last character first
+ * and is left in O(1) when no rule of it can end with that character,
+ * so stages that do not apply to the current word cost a single table lookup.</p>
+ * <p>When {@link StemTrace} samples the word, every stage is timed and the trace is reported.</p>
+ */
+final class StageEngine {
+    private final String implementation;
+    private final String[] names;
+    private final SuffixTable[] stages;
+
+    /**
+     * @param implementation name of the stemmer in the traces
+     * @param names names of the stages in the traces
+     * @param stages stages to run
+     */
+    StageEngine(String implementation, String[] names, SuffixTable... stages) {
+        if (names.length != stages.length) {
+            throw new IllegalArgumentException("Every stage needs a name");
+        }
+        this.implementation = implementation;
+        this.names = names.clone();
+        this.stages = stages.clone();
+    }
+
+    /**
+     * Lowercases the word like {@link String#toLowerCase()} in the default locale, as the {@link CzechStemmer}s do.
+     * <p>Char by char {@link Character#toLowerCase(char)} gives the same result unless the word has a surrogate,
+     * U+0130 or U+03A3, or the default language is Turkish, Azerbaijani or Lithuanian. Only then the word
+     * is lowercased through a String. A word whose lowercase form has another length, which in practice means
+     * U+0130 outside the Turkish locales, is lowercased code point by code point instead, so U+0130 becomes
+     * a single 'i' here while {@link String#toLowerCase()} gives 'i' and U+0307.</p>
+     * @param s buffer with the word
+     * @param len length of the word
+     */
+    static void lowerCase(char[] s, int len) {
+        if (!isLocaleSpecific()) {
+            int i = 0;
+            for (; i < len; i++) {
+                final char c = s[i];
+                if (c == '\u0130' || c == '\u03a3' || Character.isSurrogate(c)) {
+                    break;
+                }
+                s[i] = Character.toLowerCase(c);
+            }
+            if (i == len) {
+                return;
+            }
+        }
+        final String lower = new String(s, 0, len).toLowerCase();
+        if (lower.length() == len) {
+            lower.getChars(0, len, s, 0);
+            return;
+        }
+        for (int i = 0; i < len; ) {
+            final int c = Character.codePointAt(s, i, len);
+            final int count = Character.charCount(c);
+            final int lc = Character.toLowerCase(c);
+            if (Character.charCount(lc) == count) {
+                Character.toChars(lc, s, i);
+            }
+            i += count;
+        }
+    }
+
+    /**
+     * @return true if {@link String#toLowerCase()} has special rules for the default locale
+     */
+    private static boolean isLocaleSpecific() {
+        final String language = Locale.getDefault().getLanguage();
+        return "tr".equals(language) || "az".equals(language) || "lt".equals(language);
+    }
+
+    /**
+     * Runs all stages in order
+     * @param s buffer with the word, the stem is written back to it
+     * @param len length of the word
+     * @return length of the stem
+     */
+    int run(char[] s, int len) {
+        if (StemTrace.ENABLED && StemTrace.sample()) {
+            return runTraced(s, len);
+        }
+        for (SuffixTable stage : stages) {
+            len = stage.apply(s, len);
+        }
+        return len;
+    }
+
+    private int runTraced(char[] s, int len) {
+        final String suffix = StemTrace.suffix(s, len);
+        final int inputLength = len;
+        final long[] nanos = new long[stages.length];
+        int fired = 0;
+        for (int i = 0; i < stages.length; i++) {
+            final long start = System.nanoTime();
+            final int newlen = stages[i].apply(s, len);
+            nanos[i] = System.nanoTime() - start;
+            if (newlen != len) {
+                fired |= 1 << i;
+            }
+            len = newlen;
+        }
+        StemTrace.stemmed(implementation, suffix, inputLength, names, nanos, fired, len);
+        return len;
+    }
+}
@@ -0,0 +1,420 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Immutable automaton over reversed suffixes of an ordered list of stemming rules.
+ * <p>A rule fires when the word is longer than its guard and ends with one of its suffixes.
+ * It then cuts characters from the end, writes a (never longer) replacement and optionally
+ * hands the word to another table, just like the if/else chains of Dolamic's stemmers.</p>
+ * <p>The word is walked backwards once. Out of all matching rules the one added first wins,
+ * so the result is the same as testing the rules one by one in their original order,
+ * but the cost depends on the length of the suffix rather than on the number of rules.</p>
+ * <p>With {@link RuleProfile#COLLECT} every node counts how often the walk reached it and how often
+ * a rule of it fired. {@link #reorder(RuleProfile)} lays out the nodes and chars by these counts,
+ * so the hot part of the automaton shares cache lines. The rules keep their priorities,
+ * so a reordered table always gives the same stems. A reordered table counts to the nodes
+ * of the table it was built from, only the tables built by a {@link Builder} are registered
+ * in {@link RuleProfile#collected()}.</p>
+ */
+final class SuffixTable {
+    private static final int NONE = Integer.MAX_VALUE;
+
+    /**
+     * Name of the table in a {@link RuleProfile}
+     */
+    private final String name;
+    /**
+     * Suffix every node stands for, "" for the root
+     */
+    private final String[] nodeSuffix;
+
+    /**
+     * Column of a char in the transition table, 0 for chars no suffix contains
+     */
+    private final int[] columns;
+    private final int width;
+    /**
+     * Transitions, node * width + column, 0 when there is none (the root is never a target)
+     */
+    private final int[] transitions;
+    /**
+     * First rule ending in the node, NONE if there is none
+     */
+    private final int[] nodeRule;
+    /**
+     * Lowest rule reachable from the node, used to stop the walk early
+     */
+    private final int[] subtreeRule;
+
+    private final int[] ruleNext;
+    private final int[] ruleGuard;
+    private final int[] ruleCut;
+    private final char[][] ruleReplacement;
+    private final SuffixTable[] ruleThen;
+    private final int fallbackCut;
+    /**
+     * Node of every rule
+     */
+    private final int[] ruleNode;
+    /**
+     * Number of walks reaching every node and of rules of it fired (of words no rule matched for the root),
+     * by the node of the built table, null unless {@link RuleProfile#COLLECT}
+     */
+    private final AtomicLongArray tested;
+    private final AtomicLongArray fired;
+    /**
+     * Index of the counts of every node, null unless {@link RuleProfile#COLLECT}
+     */
+    private final int[] counter;
+
+    private SuffixTable(Builder builder) {
+        name = builder.name;
+        int rules = builder.suffixes.size();
+        char maxChar = 0;
+        for (String suffix : builder.suffixes) {
+            for (int i = 0; i < suffix.length(); i++) {
+                maxChar = (char) Math.max(maxChar, suffix.charAt(i));
+            }
+        }
+        columns = new int[maxChar + 1];
+        int width = 1;
+        for (String suffix : builder.suffixes) {
+            for (int i = 0; i < suffix.length(); i++) {
+                if (columns[suffix.charAt(i)] == 0) {
+                    columns[suffix.charAt(i)] = width++;
+                }
+            }
+        }
+        this.width = width;
+
+        int[] transitions = new int[width];
+        List<String> suffixes = new ArrayList<String>();
+        suffixes.add("");
+        int nodes = 1;
+        for (String suffix : builder.suffixes) {
+            int node = 0;
+            for (int i = suffix.length() - 1; i >= 0; i--) {
+                int slot = node * width + columns[suffix.charAt(i)];
+                if (transitions[slot] == 0) {
+                    if ((nodes + 1) * width > transitions.length) {
+                        transitions = Arrays.copyOf(transitions, 2 * transitions.length + width);
+                    }
+                    transitions[slot] = nodes++;
+                    suffixes.add(suffix.substring(i));
+                }
+                node = transitions[slot];
+            }
+        }
+        this.transitions = Arrays.copyOf(transitions, nodes * width);
+        nodeSuffix = suffixes.toArray(new String[nodes]);
+
+        nodeRule = new int[nodes];
+        subtreeRule = new int[nodes];
+        Arrays.fill(nodeRule, NONE);
+        Arrays.fill(subtreeRule, NONE);
+        ruleNext = new int[rules];
+        ruleGuard = new int[rules];
+        ruleCut = new int[rules];
+        ruleReplacement = new char[rules][];
+        ruleThen = new SuffixTable[rules];
+        ruleNode = new int[rules];
+        int[] last = new int[nodes];
+        for (int r = 0; r < rules; r++) {
+            String suffix = builder.suffixes.get(r);
+            int node = 0;
+            subtreeRule[node] = Math.min(subtreeRule[node], r);
+            for (int i = suffix.length() - 1; i >= 0; i--) {
+                node = this.transitions[node * width + columns[suffix.charAt(i)]];
+                subtreeRule[node] = Math.min(subtreeRule[node], r);
+            }
+            ruleNext[r] = NONE;
+            if (nodeRule[node] == NONE) {
+                nodeRule[node] = r;
+            } else {
+                ruleNext[last[node]] = r;
+            }
+            last[node] = r;
+            ruleNode[r] = node;
+            ruleGuard[r] = builder.guards.get(r);
+            ruleCut[r] = builder.cuts.get(r);
+            ruleReplacement[r] = builder.replacements.get(r).toCharArray();
+            ruleThen[r] = builder.thens.get(r);
+        }
+        fallbackCut = builder.fallbackCut;
+        tested = RuleProfile.COLLECT ? new AtomicLongArray(nodes) : null;
+        fired = RuleProfile.COLLECT ? new AtomicLongArray(nodes) : null;
+        if (RuleProfile.COLLECT) {
+            counter = new int[nodes];
+            for (int n = 0; n < nodes; n++) {
+                counter[n] = n;
+            }
+            RuleProfile.register(this);
+        } else {
+            counter = null;
+        }
+    }
+
+    /**
+     * Copy of the table with the nodes renumbered and the chars given new columns
+     * @param table table to copy
+     * @param nodeOrder old number of every new node, the root first
+     * @param charOrder chars in the order of their new columns, starting with column 1
+     */
+    private SuffixTable(SuffixTable table, int[] nodeOrder, char[] charOrder) {
+        int nodes = nodeOrder.length;
+        int[] newNode = new int[nodes];
+        for (int n = 0; n < nodes; n++) {
+            newNode[nodeOrder[n]] = n;
+        }
+        name = table.name;
+        width = table.width;
+        columns = new int[table.columns.length];
+        int[] oldColumn = new int[width];
+        for (int c = 0; c < charOrder.length; c++) {
+            columns[charOrder[c]] = c + 1;
+            oldColumn[c + 1] = table.columns[charOrder[c]];
+        }
+        transitions = new int[table.transitions.length];
+        nodeSuffix = new String[nodes];
+        nodeRule = new int[nodes];
+        subtreeRule = new int[nodes];
+        for (int n = 0; n < nodes; n++) {
+            int old = nodeOrder[n];
+            for (int c = 1; c < width; c++) {
+                int target = table.transitions[old * width + oldColumn[c]];
+                transitions[n * width + c] = target == 0 ? 0 : newNode[target];
+            }
+            nodeSuffix[n] = table.nodeSuffix[old];
+            nodeRule[n] = table.nodeRule[old];
+            subtreeRule[n] = table.subtreeRule[old];
+        }
+        ruleNext = table.ruleNext;
+        ruleGuard = table.ruleGuard;
+        ruleCut = table.ruleCut;
+        ruleReplacement = table.ruleReplacement;
+        ruleThen = table.ruleThen;
+        fallbackCut = table.fallbackCut;
+        ruleNode = new int[table.ruleNode.length];
+        for (int r = 0; r < ruleNode.length; r++) {
+            ruleNode[r] = newNode[table.ruleNode[r]];
+        }
+        tested = table.tested;
+        fired = table.fired;
+        if (RuleProfile.COLLECT) {
+            counter = new int[nodes];
+            for (int n = 0; n < nodes; n++) {
+                counter[n] = table.counter[nodeOrder[n]];
+            }
+        } else {
+            counter = null;
+        }
+    }
+
+    /**
+     * @return name of the table in a {@link RuleProfile}
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Adds the counts of the nodes collected so far to the profile, including the counts of the reordered copies
+     */
+    void exportCounts(RuleProfile profile) {
+        if (tested == null) {
+            return;
+        }
+        for (int n = 0; n < nodeSuffix.length; n++) {
+            if (tested.get(n) != 0 || fired.get(n) != 0) {
+                profile.add(name, nodeSuffix[n], tested.get(n), fired.get(n));
+            }
+        }
+    }
+
+    /**
+     * Lays the table out by the counts of the profile: the nodes reached most often come first,
+     * so do the columns of the chars leading to them. Rules, their priorities and the tables
+     * they pass the word to stay the same.
+     * @param profile counts of the rules, may be null
+     * @return equivalent table, this one if there is no profile or it has no counts of it
+     */
+    SuffixTable reorder(RuleProfile profile) {
+        if (profile == null || !profile.hasTable(name)) {
+            return this;
+        }
+        final long[] heat = new long[nodeSuffix.length];
+        for (int n = 0; n < heat.length; n++) {
+            heat[n] = profile.getTested(name, nodeSuffix[n]);
+        }
+        Integer[] order = new Integer[heat.length - 1];
+        for (int n = 1; n < heat.length; n++) {
+            order[n - 1] = n;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return heat[a] != heat[b] ? (heat[a] > heat[b] ? -1 : 1) : a - b;
+            }
+        });
+        int[] nodeOrder = new int[heat.length];
+        for (int n = 1; n < heat.length; n++) {
+            nodeOrder[n] = order[n - 1];
+        }
+
+        final long[] charHeat = new long[width];
+        Integer[] chars = new Integer[width - 1];
+        int count = 0;
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] != 0) {
+                chars[count++] = c;
+            }
+        }
+        for (int n = 0; n < heat.length; n++) {
+            for (int column = 1; column < width; column++) {
+                int target = transitions[n * width + column];
+                if (target != 0) {
+                    charHeat[column] += heat[target];
+                }
+            }
+        }
+        Arrays.sort(chars, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                long ha = charHeat[columns[a]];
+                long hb = charHeat[columns[b]];
+                return ha != hb ? (ha > hb ? -1 : 1) : columns[a] - columns[b];
+            }
+        });
+        char[] charOrder = new char[chars.length];
+        for (int c = 0; c < chars.length; c++) {
+            charOrder[c] = (char) chars[c].intValue();
+        }
+        return new SuffixTable(this, nodeOrder, charOrder);
+    }
+
+    /**
+     * Finds the rule the original if/else chain would apply
+     * @param s buffer with the word
+     * @param len length of the word
+     * @return index of the rule, -1 when no rule matches
+     */
+    int match(char[] s, int len) {
+        int best = NONE;
+        int node = 0;
+        if (RuleProfile.COLLECT) {
+            tested.incrementAndGet(counter[0]);
+        }
+        for (int i = len - 1; i >= 0; i--) {
+            char c = s[i];
+            if (c >= columns.length || columns[c] == 0) {
+                break;
+            }
+            node = transitions[node * width + columns[c]];
+            if (node == 0 || subtreeRule[node] > best) {
+                break;
+            }
+            if (RuleProfile.COLLECT) {
+                tested.incrementAndGet(counter[node]);
+            }
+            for (int r = nodeRule[node]; r != NONE; r = ruleNext[r]) {
+                if (len > ruleGuard[r]) {
+                    best = Math.min(best, r);
+                    break;
+                }
+            }
+        }
+        return best == NONE ? -1 : best;
+    }
+
+    /**
+     * Applies the matching rule, or the fallback cut if no rule matches
+     * @param s buffer with the word
+     * @param len length of the word
+     * @return length of the word after the rule was applied
+     */
+    int apply(char[] s, int len) {
+        int r = match(s, len);
+        if (RuleProfile.COLLECT) {
+            fired.incrementAndGet(counter[r < 0 ? 0 : ruleNode[r]]);
+        }
+        if (r < 0) {
+            return len - fallbackCut;
+        }
+        len -= ruleCut[r];
+        char[] replacement = ruleReplacement[r];
+        for (int i = 0; i < replacement.length; i++) {
+            s[len++] = replacement[i];
+        }
+        return ruleThen[r] == null ? len : ruleThen[r].apply(s, len);
+    }
+
+    /**
+     * Collects the rules in the order the original code tests them
+     */
+    static final class Builder {
+        private final String name;
+        private final List<String> suffixes = new ArrayList<String>();
+        private final List<Integer> guards = new ArrayList<Integer>();
+        private final List<Integer> cuts = new ArrayList<Integer>();
+        private final List<String> replacements = new ArrayList<String>();
+        private final List<SuffixTable> thens = new ArrayList<SuffixTable>();
+        private int fallbackCut = 0;
+
+        /**
+         * @param name name of the table in a {@link RuleProfile}
+         */
+        Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Words longer than guard ending with one of suffixes lose cut characters
+         */
+        Builder remove(int guard, int cut, String... suffixes) {
+            return rule(guard, cut, "", null, suffixes);
+        }
+
+        /**
+         * Like {@link #remove(int, int, String...)}, the rest of the word is then passed to the table
+         */
+        Builder remove(int guard, int cut, SuffixTable then, String... suffixes) {
+            return rule(guard, cut, "", then, suffixes);
+        }
+
+        /**
+         * Words longer than guard ending with one of suffixes have cut characters replaced
+         */
+        Builder replace(int guard, int cut, String replacement, String... suffixes) {
+            return rule(guard, cut, replacement, null, suffixes);
+        }
+
+        /**
+         * Number of characters removed when no rule matches
+         */
+        Builder fallback(int cut) {
+            fallbackCut = cut;
+            return this;
+        }
+
+        private Builder rule(int guard, int cut, String replacement, SuffixTable then, String... suffixes) {
+            for (String suffix : suffixes) {
+                if (suffix.isEmpty() || cut > suffix.length() || replacement.length() > cut) {
+                    throw new IllegalArgumentException("Invalid rule -" + suffix + " cut " + cut + " replacement " + replacement);
+                }
+                this.suffixes.add(suffix);
+                guards.add(guard);
+                cuts.add(cut);
+                replacements.add(replacement);
+                thens.add(then);
+            }
+            return this;
+        }
+
+        SuffixTable build() {
+            return new SuffixTable(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.stats;
+
+/**
+ * Statistics of all filters of one factory.
+ * <p>A filter counts its tokens in plain fields and adds them here at the end of every
+ * TokenStream, so the {@link StripedCounter}s are touched once per field value, not per token.</p>
+ */
+public final class StemStatistics {
+    private final StripedCounter tokens = new StripedCounter();
+    private final StripedCounter keywords = new StripedCounter();
+    private final StripedCounter timedTokens = new StripedCounter();
+    private final StripedCounter nanos = new StripedCounter();
+    private final StripedCounter chars = new StripedCounter();
+    private final StripedCounter stemChars = new StripedCounter();
+
+    /**
+     * Adds the counts of a filter
+     * @param tokens stemmed tokens, including the ones stemmed by a dictionary
+     * @param keywords tokens skipped as keywords
+     * @param timedTokens stemmed tokens whose stemming was timed
+     * @param nanos time spent stemming the timed tokens
+     * @param chars chars of the stemmed tokens
+     * @param stemChars chars of their stems
+     */
+    public void add(long tokens, long keywords, long timedTokens, long nanos, long chars, long stemChars) {
+        this.tokens.add(tokens);
+        this.keywords.add(keywords);
+        this.timedTokens.add(timedTokens);
+        this.nanos.add(nanos);
+        this.chars.add(chars);
+        this.stemChars.add(stemChars);
+    }
+
+    /**
+     * @return number of stemmed tokens
+     */
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    /**
+     * @return number of tokens skipped as keywords
+     */
+    public long getKeywords() {
+        return keywords.sum();
+    }
+
+    /**
+     * @return number of stemmed tokens whose stemming was timed
+     */
+    public long getTimedTokens() {
+        return timedTokens.sum();
+    }
+
+    /**
+     * @return nanoseconds spent stemming the timed tokens, with the snapshot and cache lookups
+     */
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * @return average nanoseconds spent stemming a timed token
+     */
+    public double getAverageNanos() {
+        long count = timedTokens.sum();
+        return count == 0 ? 0 : (double) nanos.sum() / count;
+    }
+
+    /**
+     * @return average length of a stemmed token
+     */
+    public double getAverageTokenLength() {
+        long count = tokens.sum();
+        return count == 0 ? 0 : (double) chars.sum() / count;
+    }
+
+    /**
+     * @return share of the chars of the stemmed tokens removed by stemming
+     */
+    public double getReductionRatio() {
+        long total = chars.sum();
+        return total == 0 ? 0 : 1 - (double) stemChars.sum() / total;
+    }
+}
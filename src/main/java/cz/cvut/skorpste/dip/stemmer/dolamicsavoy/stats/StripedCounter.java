@@ -0,0 +1,61 @@
+package cz.cvut.skorpste.dip.stemmer.dolamicsavoy.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe sum split into cells picked by the thread id, like <code>LongAdder</code> of Java 8.
+ * <p>Threads adding at the same time mostly hit different cells, each on its own cache line,
+ * so they neither wait for each other nor invalidate each other's caches. Reading sums all cells.</p>
+ */
+public final class StripedCounter {
+    /**
+     * Longs in a cache line, only the first one of every line is used
+     */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    /**
+     * Counter with a cell for every processor, rounded up to a power of two
+     */
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes least number of cells
+     */
+    public StripedCounter(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes must be positive: " + stripes);
+        }
+        int count = Integer.highestOneBit(stripes);
+        if (count < stripes) {
+            count *= 2;
+        }
+        mask = count - 1;
+        cells = new AtomicLongArray((count + 1) * PADDING);
+    }
+
+    public void add(long x) {
+        // ids of the indexing threads mostly follow each other, so the low bits spread them well
+        int cell = ((int) Thread.currentThread().getId() & mask) + 1;
+        cells.addAndGet(cell * PADDING, x);
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * @return sum of all cells, not an atomic snapshot when other threads are adding
+     */
+    public long sum() {
+        long sum = 0;
+        for (int cell = 1; cell <= mask + 1; cell++) {
+            sum += cells.get(cell * PADDING);
+        }
+        return sum;
+    }
+}
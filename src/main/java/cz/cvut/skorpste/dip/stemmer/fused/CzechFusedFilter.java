@@ -0,0 +1,113 @@
+package cz.cvut.skorpste.dip.stemmer.fused;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilter;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.analysis.util.CharacterUtils;
+import org.apache.lucene.util.Version;
+import org.tartarus.snowball.ext.CzechHelebrandTrieStemmer;
+
+import java.io.IOException;
+
+
+/**
+ * A {@link org.apache.lucene.analysis.TokenFilter} doing the work of
+ * {@link org.apache.lucene.analysis.core.LowerCaseFilter}, {@link org.apache.lucene.analysis.core.StopFilter},
+ * {@link org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter} and a Czech stem filter
+ * in one pass over the term buffer.
+ * <p>The term is lowercased in place, dropped if it is a stopword, marked as a keyword if it is
+ * one of the exclusions and otherwise stemmed in place, by a {@link CzechCharStemmer} or
+ * by Helebrand's trie stemmer. The tokens, their positions and keyword flags are the same as
+ * those of the four filters, tokens marked as keywords before this filter are not stemmed either.</p>
+ */
+public final class CzechFusedFilter extends TokenFilter {
+    private final CharacterUtils charUtils;
+    private final CharArraySet stopwords;
+    private final CharArraySet exclusions;
+    private final CzechCharStemmer stemmer;
+    private final CzechHelebrandTrieStemmer helebrand;
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+    private final PositionIncrementAttribute posIncrAtt = addAttribute(PositionIncrementAttribute.class);
+    /**
+     * Positions of the stopwords dropped since the last returned token
+     */
+    private int skippedPositions;
+
+    /**
+     * Filter stemming with a {@link CzechCharStemmer}
+     * @param matchVersion version of the lowercasing, as of {@link org.apache.lucene.analysis.core.LowerCaseFilter}
+     * @param stopwords lowercase stopwords, null for none
+     * @param exclusions lowercase words not to stem, null for none
+     */
+    public CzechFusedFilter(Version matchVersion, TokenStream input, CharArraySet stopwords, CharArraySet exclusions,
+                            CzechCharStemmer stemmer) {
+        this(matchVersion, input, stopwords, exclusions, stemmer, null);
+    }
+
+    /**
+     * Filter stemming with Helebrand's stemmer
+     * @param matchVersion version of the lowercasing, as of {@link org.apache.lucene.analysis.core.LowerCaseFilter}
+     * @param stopwords lowercase stopwords, null for none
+     * @param exclusions lowercase words not to stem, null for none
+     */
+    public CzechFusedFilter(Version matchVersion, TokenStream input, CharArraySet stopwords, CharArraySet exclusions) {
+        this(matchVersion, input, stopwords, exclusions, null, new CzechHelebrandTrieStemmer());
+    }
+
+    private CzechFusedFilter(Version matchVersion, TokenStream input, CharArraySet stopwords, CharArraySet exclusions,
+                             CzechCharStemmer stemmer, CzechHelebrandTrieStemmer helebrand) {
+        super(input);
+        this.charUtils = CharacterUtils.getInstance(matchVersion);
+        this.stopwords = stopwords == null || stopwords.isEmpty() ? null : stopwords;
+        this.exclusions = exclusions == null || exclusions.isEmpty() ? null : exclusions;
+        this.stemmer = stemmer;
+        this.helebrand = helebrand;
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        while (input.incrementToken()) {
+            final char[] buffer = termAtt.buffer();
+            final int length = termAtt.length();
+            charUtils.toLowerCase(buffer, 0, length);
+            if (stopwords != null && stopwords.contains(buffer, 0, length)) {
+                skippedPositions += posIncrAtt.getPositionIncrement();
+                continue;
+            }
+            if (skippedPositions != 0) {
+                posIncrAtt.setPositionIncrement(posIncrAtt.getPositionIncrement() + skippedPositions);
+                skippedPositions = 0;
+            }
+            if (exclusions != null && exclusions.contains(buffer, 0, length)) {
+                keywordAttr.setKeyword(true);
+            }
+            if (!keywordAttr.isKeyword()) {
+                if (stemmer != null) {
+                    termAtt.setLength(stemmer.stem(buffer, length));
+                } else {
+                    CzechHelebrandStemFilter.stem(helebrand, termAtt);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        skippedPositions = 0;
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        posIncrAtt.setPositionIncrement(posIncrAtt.getPositionIncrement() + skippedPositions);
+    }
+}
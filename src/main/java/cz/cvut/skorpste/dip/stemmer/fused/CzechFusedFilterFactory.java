@@ -0,0 +1,96 @@
+package cz.cvut.skorpste.dip.stemmer.fused;
+
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Factory for {@link CzechFusedFilter}, it replaces this chain:
+ * <pre class="prettyprint">
+ * &lt;filter class="solr.LowerCaseFilterFactory"/&gt;
+ * &lt;filter class="solr.StopFilterFactory" words="stopwords.txt"/&gt;
+ * &lt;filter class="solr.KeywordMarkerFilterFactory" protected="protwords.txt"/&gt;
+ * &lt;filter class="cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory" implementation="Agressive"/&gt;
+ * </pre>
+ * by a single filter:
+ * <pre class="prettyprint">
+ * &lt;fieldType name="text_cz_fused" class="solr.TextField" positionIncrementGap="100"&gt;
+ * &lt;analyzer&gt;
+ * &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
+ * &lt;filter class="cz.cvut.skorpste.dip.stemmer.fused.CzechFusedFilterFactory" implementation="Agressive" words="stopwords.txt" protected="protwords.txt"/&gt;
+ * &lt;/analyzer&gt;
+ * &lt;/fieldType&gt;
+ * </pre>
+ * <p>The <code>implementation</code> is <code>Light</code> (the default), <code>Agressive</code>
+ * or <code>Helebrand</code>. The <code>words</code> and <code>protected</code> files are optional,
+ * <code>format</code> and <code>ignoreCase</code> are read like by the StopFilterFactory.</p>
+ */
+public class CzechFusedFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+    public static final String IMPLEMENTATION_LIGHT = "Light";
+    public static final String IMPLEMENTATION_AGRESSIVE = "Agressive";
+    public static final String IMPLEMENTATION_HELEBRAND = "Helebrand";
+
+    private final String implementation;
+    private final String stopWordFiles;
+    private final String format;
+    private final String protectedFiles;
+    private final boolean ignoreCase;
+    private CharArraySet stopwords;
+    private CharArraySet exclusions;
+    /**
+     * Stateless stemmer shared by all filters of the factory, null for Helebrand
+     */
+    private CzechCharStemmer stemmer;
+
+    /**
+     * Creates a new CzechFusedFilterFactory
+     * @param args key-value pairs of parameters to change behavior
+     */
+    public CzechFusedFilterFactory(Map<String, String> args) {
+        super(args);
+        assureMatchVersion();
+        implementation = get(args, "implementation",
+                Arrays.asList(IMPLEMENTATION_LIGHT, IMPLEMENTATION_AGRESSIVE, IMPLEMENTATION_HELEBRAND), IMPLEMENTATION_LIGHT);
+        stopWordFiles = get(args, "words");
+        format = get(args, "format", Arrays.asList("wordset", "snowball"), "wordset");
+        protectedFiles = get(args, "protected");
+        ignoreCase = getBoolean(args, "ignoreCase", false);
+        if (!args.isEmpty()) {
+            throw new IllegalArgumentException("Unknown parameters: " + args);
+        }
+    }
+
+    public void inform(ResourceLoader loader) throws IOException {
+        if (stopWordFiles != null) {
+            stopwords = "snowball".equals(format)
+                    ? getSnowballWordSet(loader, stopWordFiles, ignoreCase)
+                    : getWordSet(loader, stopWordFiles, ignoreCase);
+        }
+        if (protectedFiles != null) {
+            exclusions = getWordSet(loader, protectedFiles, ignoreCase);
+        }
+        if (IMPLEMENTATION_LIGHT.equals(implementation)) {
+            stemmer = new CzechLightCharStemmer();
+        } else if (IMPLEMENTATION_AGRESSIVE.equals(implementation)) {
+            stemmer = new CzechAgressiveCharStemmer();
+        }
+    }
+
+    @Override
+    public TokenStream create(TokenStream input) {
+        if (stemmer == null) {
+            return new CzechFusedFilter(luceneMatchVersion, input, stopwords, exclusions);
+        }
+        return new CzechFusedFilter(luceneMatchVersion, input, stopwords, exclusions, stemmer);
+    }
+}
@@ -0,0 +1,104 @@
+package cz.cvut.skorpste.dip.stemmer.helebrand;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionary;
+import cz.cvut.skorpste.dip.stemmer.trace.StemTrace;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.util.CharsRef;
+import org.apache.lucene.util.fst.FST;
+import org.tartarus.snowball.ext.CzechHelebrandTrieStemmer;
+
+import java.io.IOException;
+
+
+/**
+ * A {@link org.apache.lucene.analysis.TokenFilter} that stems Czech words with Helebrand's Snowball algorithm.
+ * <p>Unlike {@link org.apache.lucene.analysis.snowball.SnowballFilter} the stemmer is created directly
+ * and runs on the term buffer itself. The buffer is enlarged before stemming, so the few rules
+ * which insert letters do not make the stemmer reallocate it and the stem is never copied back.</p>
+ * <p>With a {@link StemDictionary} built by the Helebrand stemmer the forms found in it get its stems
+ * and only the others are stemmed.</p>
+ * <p>The generated stemmer has no stages to hook into, so a token sampled by {@link StemTrace}
+ * is traced as a single stage.</p>
+ * <p><b>NOTE</b>: Input is expected to be in lowercase,
+ * but with diacritical marks</p>
+ */
+public final class CzechHelebrandStemFilter extends TokenFilter {
+    /**
+     * Room for letters inserted by the stemmer, more than any rule inserts on top of what it removes
+     */
+    private static final int GROWTH = 8;
+    private static final String[] TRACE_STAGES = { "stem" };
+
+    private final CzechHelebrandTrieStemmer stemmer = new CzechHelebrandTrieStemmer();
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+    private final StemDictionary dictionary;
+    /**
+     * null without a dictionary or for an empty one
+     */
+    private final FST.BytesReader fstReader;
+    private final FST.Arc<CharsRef> scratchArc = new FST.Arc<CharsRef>();
+
+    public CzechHelebrandStemFilter(TokenStream input) {
+        this(input, null);
+    }
+
+    /**
+     * @param dictionary stems of the forms to look up before stemming, null if there are none
+     */
+    public CzechHelebrandStemFilter(TokenStream input, StemDictionary dictionary) {
+        super(input);
+        this.dictionary = dictionary;
+        this.fstReader = dictionary == null ? null : dictionary.getBytesReader();
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        if (input.incrementToken()) {
+            if (!keywordAttr.isKeyword() && (fstReader == null || !dictionary.stem(termAtt, scratchArc, fstReader))) {
+                if (StemTrace.ENABLED && StemTrace.sample()) {
+                    stemTraced();
+                } else {
+                    stem(stemmer, termAtt);
+                }
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private void stemTraced() {
+        final int length = termAtt.length();
+        final String suffix = StemTrace.suffix(termAtt.buffer(), length);
+        final long start = System.nanoTime();
+        stem(stemmer, termAtt);
+        final long nanos = System.nanoTime() - start;
+        final int newlen = termAtt.length();
+        StemTrace.stemmed("Helebrand", suffix, length, TRACE_STAGES, new long[] { nanos }, newlen != length ? 1 : 0,
+                newlen);
+    }
+
+    /**
+     * Stems the term in place, its buffer is enlarged first so the stem is copied back only
+     * if the stemmer reallocated it anyway. Shared with {@link cz.cvut.skorpste.dip.stemmer.fused.CzechFusedFilter}.
+     * @param stemmer stemmer of the calling filter
+     * @param termAtt term to stem
+     */
+    public static void stem(CzechHelebrandTrieStemmer stemmer, CharTermAttribute termAtt) {
+        final int length = termAtt.length();
+        final char[] buffer = termAtt.resizeBuffer(length + GROWTH);
+        stemmer.setCurrent(buffer, length);
+        stemmer.stem();
+        final char[] stem = stemmer.getCurrentBuffer();
+        final int newlen = stemmer.getCurrentBufferLength();
+        if (stem != buffer) {
+            termAtt.copyBuffer(stem, 0, newlen);
+        } else {
+            termAtt.setLength(newlen);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package cz.cvut.skorpste.dip.stemmer.helebrand;
+
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionary;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Factory for {@link CzechHelebrandStemFilter}.
+ * <pre class="prettyprint">
+ * &lt;fieldType name="text_cz_helebrand" class="solr.TextField" positionIncrementGap="100"&gt;
+ * &lt;analyzer&gt;
+ * &lt;tokenizer class="solr.StandardTokenizerFactory"/&gt;
+ * &lt;filter class="solr.LowerCaseFilterFactory"/&gt;
+ * &lt;filter class="cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilterFactory"/&gt;
+ * &lt;/analyzer&gt;
+ * &lt;/fieldType&gt;
+ * </pre>
+ * <p>With <code>dictionary="stems.fst"</code> the forms are looked up in a dictionary built offline by
+ * {@link cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionaryBuilder} with the Helebrand
+ * stemmer first, only the forms missing in it are stemmed. A dictionary of another stemmer fails to load.</p>
+ */
+public class CzechHelebrandStemFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
+    private final String dictionaryFile;
+    private StemDictionary dictionary;
+
+    /**
+     * Creates a new CzechHelebrandStemFilterFactory
+     * @param args key-value pairs of parameters to change behavior
+     */
+    public CzechHelebrandStemFilterFactory(Map<String, String> args) {
+        super(args);
+        dictionaryFile = get(args, "dictionary");
+        if (!args.isEmpty()) {
+            throw new IllegalArgumentException("Unknown parameters: " + args);
+        }
+    }
+
+    public void inform(ResourceLoader loader) throws IOException {
+        if (dictionaryFile != null) {
+            InputStream in = loader.openResource(dictionaryFile);
+            try {
+                dictionary = StemDictionary.read(in);
+            } finally {
+                in.close();
+            }
+            String dictionaryStemmer = StemDictionary.stemmerName("Helebrand", null);
+            if (!dictionaryStemmer.equals(dictionary.getStemmer())) {
+                throw new IllegalArgumentException("Dictionary " + dictionaryFile + " was built by the stemmer '"
+                        + dictionary.getStemmer() + "', not by " + dictionaryStemmer);
+            }
+        }
+    }
+
+    @Override
+    public TokenStream create(TokenStream input) {
+        return new CzechHelebrandStemFilter(input, dictionary);
+    }
+}
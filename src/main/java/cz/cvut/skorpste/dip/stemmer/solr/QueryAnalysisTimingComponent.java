@@ -0,0 +1,286 @@
+package cz.cvut.skorpste.dip.stemmer.solr;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.stats.LatencyHistogram;
+import cz.cvut.skorpste.dip.stemmer.fused.CzechFusedFilterFactory;
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilterFactory;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.snowball.SnowballPorterFilterFactory;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.solr.analysis.TokenizerChain;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.handler.component.ResponseBuilder;
+import org.apache.solr.handler.component.SearchComponent;
+import org.apache.solr.request.SolrRequestInfo;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.schema.TextField;
+import org.apache.solr.util.plugin.SolrCoreAware;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures the time spent in the query analyzers of the Czech field types.
+ * <pre class="prettyprint">
+ * &lt;searchComponent name="czechAnalysisTiming" class="cz.cvut.skorpste.dip.stemmer.solr.QueryAnalysisTimingComponent"/&gt;
+ * &lt;requestHandler name="/select" class="solr.SearchHandler"&gt;
+ * &lt;arr name="first-components"&gt;&lt;str&gt;czechAnalysisTiming&lt;/str&gt;&lt;/arr&gt;
+ * &lt;/requestHandler&gt;
+ * </pre>
+ * <p>When the core is loaded, the query analyzer of every {@link TextField} whose chain contains
+ * {@link CzechStemFilterFactory}, {@link CzechHelebrandStemFilterFactory}, {@link CzechFusedFilterFactory}
+ * or the CzechHelebrand Snowball stemmer is wrapped by one timing the tokens of its chain, and the query analyzer of the schema
+ * is refreshed to use it. A field type already wrapped by a core sharing the schema is timed as it is.
+ * The component has to be one of the
+ * first-components, so that it starts timing a request before the query is parsed. The time of every
+ * request spent in analysis of each field type is added to a {@link LatencyHistogram} of the field type,
+ * whose percentiles are in the statistics of the component. With <code>debug=timing</code>
+ * or <code>debugQuery=true</code> the times of the request are added to the debug output.
+ * A request failing before the component finishes is not recorded, its timing is ended when
+ * the {@link SolrRequestInfo} of the request is cleared.</p>
+ * <p>Field types added later by a schema API are not timed until the core is reloaded.</p>
+ */
+public class QueryAnalysisTimingComponent extends SearchComponent implements SolrCoreAware {
+    public static final String COMPONENT_NAME = "czechAnalysisTiming";
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    /**
+     * Component timing the request of the thread, the timing analyzers report to it as they are shared
+     * by all cores of a shared schema
+     */
+    private static final ThreadLocal<QueryAnalysisTimingComponent> CURRENT = new ThreadLocal<QueryAnalysisTimingComponent>();
+
+    private final List<String> fieldTypes = new ArrayList<String>();
+    private final List<LatencyHistogram> histograms = new ArrayList<LatencyHistogram>();
+    /**
+     * Index of every timed field type in {@link #fieldTypes}
+     */
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<String, Integer>();
+    /**
+     * Nanoseconds of every field type spent by the request of the thread, null outside of a request
+     */
+    private final ThreadLocal<long[]> requestNanos = new ThreadLocal<long[]>();
+
+    public void inform(SolrCore core) {
+        IndexSchema schema = core.getLatestSchema();
+        boolean wrapped = false;
+        for (Map.Entry<String, FieldType> entry : schema.getFieldTypes().entrySet()) {
+            FieldType fieldType = entry.getValue();
+            if (!(fieldType instanceof TextField)) {
+                continue;
+            }
+            Analyzer analyzer = fieldType.getQueryAnalyzer();
+            if (analyzer instanceof TimingAnalyzer) {
+                register(entry.getKey());
+            } else if (isCzech(analyzer)) {
+                fieldType.setQueryAnalyzer(new TimingAnalyzer(analyzer, entry.getKey()));
+                register(entry.getKey());
+                wrapped = true;
+            }
+        }
+        if (wrapped) {
+            // the schema copies the analyzers of its fields, the query parsers would keep the unwrapped ones
+            schema.refreshAnalyzers();
+        }
+    }
+
+    private void register(String fieldType) {
+        synchronized (histograms) {
+            if (!indexes.containsKey(fieldType)) {
+                fieldTypes.add(fieldType);
+                histograms.add(new LatencyHistogram());
+                indexes.put(fieldType, fieldTypes.size() - 1);
+            }
+        }
+    }
+
+    private static boolean isCzech(Analyzer analyzer) {
+        if (!(analyzer instanceof TokenizerChain)) {
+            return false;
+        }
+        for (TokenFilterFactory factory : ((TokenizerChain) analyzer).getTokenFilterFactories()) {
+            if (factory instanceof CzechStemFilterFactory || factory instanceof CzechHelebrandStemFilterFactory
+                    || factory instanceof CzechFusedFilterFactory) {
+                return true;
+            }
+            if (factory instanceof SnowballPorterFilterFactory
+                    && "CzechHelebrand".equals(factory.getOriginalArgs().get("language"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void prepare(ResponseBuilder rb) throws IOException {
+        long[] nanos = requestNanos.get();
+        if (nanos == null || nanos.length != fieldTypes.size()) {
+            nanos = new long[fieldTypes.size()];
+        } else {
+            Arrays.fill(nanos, 0);
+        }
+        requestNanos.set(nanos);
+        CURRENT.set(this);
+        SolrRequestInfo info = SolrRequestInfo.getRequestInfo();
+        if (info != null) {
+            // finish() is not called when a later component fails
+            info.addCloseHook(new Closeable() {
+                public void close() {
+                    clear();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void process(ResponseBuilder rb) throws IOException {
+        finish(rb);
+    }
+
+    @Override
+    public void finishStage(ResponseBuilder rb) {
+        if (rb.stage == ResponseBuilder.STAGE_DONE) {
+            finish(rb);
+        }
+    }
+
+    /**
+     * Records the times of the request and ends its timing
+     */
+    private void finish(ResponseBuilder rb) {
+        long[] nanos = requestNanos.get();
+        if (nanos == null) {
+            return;
+        }
+        clear();
+        NamedList<Object> debug = rb.isDebugTimings() || rb.isDebugQuery() ? new SimpleOrderedMap<Object>() : null;
+        for (int i = 0; i < nanos.length; i++) {
+            if (nanos[i] > 0) {
+                histograms.get(i).record(nanos[i]);
+                if (debug != null) {
+                    debug.add(fieldTypes.get(i), nanos[i] / 1e6);
+                }
+            }
+        }
+        if (debug != null) {
+            rb.addDebugInfo(COMPONENT_NAME, debug);
+        }
+    }
+
+    /**
+     * Ends the timing of the request of the thread
+     */
+    private void clear() {
+        requestNanos.remove();
+        CURRENT.remove();
+    }
+
+    /**
+     * @return true if a request of the current thread is being timed
+     */
+    public boolean isTiming() {
+        return requestNanos.get() != null;
+    }
+
+    /**
+     * Adds time spent by the chain of a field type to the request of the thread, if one is timed
+     */
+    static void addNanos(String fieldType, long nanos) {
+        QueryAnalysisTimingComponent component = CURRENT.get();
+        if (component == null) {
+            return;
+        }
+        Integer index = component.indexes.get(fieldType);
+        long[] request = component.requestNanos.get();
+        if (index != null && request != null && index < request.length) {
+            request[index] += nanos;
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Query analysis latency of the Czech field types";
+    }
+
+    @Override
+    public String getSource() {
+        return null;
+    }
+
+    /**
+     * @return request count, percentiles and maximum of the analysis time in milliseconds for every field type
+     */
+    @Override
+    public NamedList getStatistics() {
+        NamedList<Object> statistics = new SimpleOrderedMap<Object>();
+        synchronized (histograms) {
+            for (int i = 0; i < fieldTypes.size(); i++) {
+                LatencyHistogram histogram = histograms.get(i);
+                statistics.add(fieldTypes.get(i) + ".requests", histogram.getCount());
+                for (double percentile : PERCENTILES) {
+                    statistics.add(fieldTypes.get(i) + ".p" + (percentile == Math.rint(percentile)
+                            ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                            histogram.getValueAtPercentile(percentile) / 1e6);
+                }
+                statistics.add(fieldTypes.get(i) + ".max", histogram.getMax() / 1e6);
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Query analyzer of a field type timing the tokens of the wrapped chain
+     */
+    private static final class TimingAnalyzer extends AnalyzerWrapper {
+        private final Analyzer analyzer;
+        private final String fieldType;
+
+        TimingAnalyzer(Analyzer analyzer, String fieldType) {
+            super(PER_FIELD_REUSE_STRATEGY);
+            this.analyzer = analyzer;
+            this.fieldType = fieldType;
+        }
+
+        @Override
+        protected Analyzer getWrappedAnalyzer(String fieldName) {
+            return analyzer;
+        }
+
+        @Override
+        protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+            return new TokenStreamComponents(components.getTokenizer(), new TimingFilter(components.getTokenStream()));
+        }
+
+        private final class TimingFilter extends TokenFilter {
+            TimingFilter(TokenStream input) {
+                super(input);
+            }
+
+            @Override
+            public boolean incrementToken() throws IOException {
+                long start = System.nanoTime();
+                boolean result = input.incrementToken();
+                addNanos(fieldType, System.nanoTime() - start);
+                return result;
+            }
+
+            @Override
+            public void reset() throws IOException {
+                long start = System.nanoTime();
+                super.reset();
+                addNanos(fieldType, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package cz.cvut.skorpste.dip.stemmer.solr;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.solr.analysis.TokenizerChain;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.core.CloseHook;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.handler.RequestHandlerBase;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.response.SolrQueryResponse;
+import org.apache.solr.schema.FieldType;
+import org.apache.solr.util.plugin.SolrCoreAware;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Writes the stem snapshots of the {@link CzechStemFilterFactory CzechStemFilterFactories} of a core.
+ * <pre class="prettyprint">
+ * &lt;requestHandler name="/admin/stemsnapshot" class="cz.cvut.skorpste.dip.stemmer.solr.StemSnapshotHandler"/&gt;
+ * </pre>
+ * <p>Solr never closes the token filter factories of a schema, so the handler registers a {@link CloseHook}
+ * which writes the snapshot of every factory with a <code>cacheSnapshot</code> when the core is closed,
+ * also before a reload. A request to the handler writes them at once and lists the written files
+ * by field type.</p>
+ */
+public class StemSnapshotHandler extends RequestHandlerBase implements SolrCoreAware {
+    /**
+     * Factories with a snapshot by the name of their first field type, informed with the core
+     */
+    private final Map<CzechStemFilterFactory, String> factories =
+            new IdentityHashMap<CzechStemFilterFactory, String>();
+
+    public void inform(SolrCore core) {
+        for (Map.Entry<String, FieldType> entry : core.getLatestSchema().getFieldTypes().entrySet()) {
+            add(entry.getKey(), entry.getValue().getIndexAnalyzer());
+            add(entry.getKey(), entry.getValue().getQueryAnalyzer());
+        }
+        core.addCloseHook(new CloseHook() {
+            @Override
+            public void preClose(SolrCore core) {
+                writeSnapshots();
+            }
+
+            @Override
+            public void postClose(SolrCore core) {
+            }
+        });
+    }
+
+    private void add(String fieldType, Analyzer analyzer) {
+        if (!(analyzer instanceof TokenizerChain)) {
+            return;
+        }
+        for (TokenFilterFactory factory : ((TokenizerChain) analyzer).getTokenFilterFactories()) {
+            if (factory instanceof CzechStemFilterFactory
+                    && ((CzechStemFilterFactory) factory).getSnapshotFile() != null
+                    && !factories.containsKey(factory)) {
+                factories.put((CzechStemFilterFactory) factory, fieldType);
+            }
+        }
+    }
+
+    /**
+     * Writes the snapshot of every factory, a failed one does not stop the others
+     * @return written files by field type
+     */
+    private synchronized NamedList<Object> writeSnapshots() {
+        NamedList<Object> written = new SimpleOrderedMap<Object>();
+        IOException failure = null;
+        for (Map.Entry<CzechStemFilterFactory, String> entry : factories.entrySet()) {
+            try {
+                entry.getKey().writeSnapshot();
+                written.add(entry.getValue(), entry.getKey().getSnapshotFile().getPath());
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "Stem snapshot can not be written", failure);
+        }
+        return written;
+    }
+
+    @Override
+    public void handleRequestBody(SolrQueryRequest req, SolrQueryResponse rsp) throws Exception {
+        rsp.add("snapshots", writeSnapshots());
+    }
+
+    @Override
+    public String getDescription() {
+        return "Writes the stem snapshots of the Czech stem filters";
+    }
+
+    @Override
+    public String getSource() {
+        return null;
+    }
+}
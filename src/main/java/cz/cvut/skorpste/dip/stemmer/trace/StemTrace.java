@@ -0,0 +1,91 @@
+package cz.cvut.skorpste.dip.stemmer.trace;
+
+/**
+ * Hooks for tracing single tokens inside the stemmers.
+ * <p>Tracing is compiled in but off unless the JVM is started with
+ * <code>-Dcz.cvut.skorpste.dip.stemmer.trace=true</code>. {@link #ENABLED} is a constant,
+ * so with tracing off the JIT removes the hooks together with the check.
+ * With tracing on, every {@link #SAMPLE_INTERVAL}-th token of a thread
+ * (<code>-Dcz.cvut.skorpste.dip.stemmer.trace.sample</code>, 1000 by default) is timed stage by stage
+ * and handed to the {@link StemTracer}.</p>
+ * <p>Unless another tracer is set, the Java Flight Recorder tracer of <code>mvn -P jfr</code> builds is used
+ * when it is on the classpath and the JVM has JFR (Java 11 and later). Its event
+ * <code>cz.cvut.skorpste.dip.stemmer.Stem</code> is disabled by default and has to be enabled in the
+ * recording settings.</p>
+ */
+public final class StemTrace {
+    public static final boolean ENABLED = Boolean.getBoolean("cz.cvut.skorpste.dip.stemmer.trace");
+    public static final int SAMPLE_INTERVAL = Math.max(1, Integer.getInteger("cz.cvut.skorpste.dip.stemmer.trace.sample", 1000));
+
+    private static final String JFR_TRACER = "cz.cvut.skorpste.dip.stemmer.trace.jfr.JfrStemTracer";
+
+    private static final ThreadLocal<int[]> COUNTDOWN = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[] { SAMPLE_INTERVAL };
+        }
+    };
+
+    private static volatile StemTracer tracer = ENABLED ? loadJfrTracer() : null;
+
+    private StemTrace() {
+    }
+
+    private static StemTracer loadJfrTracer() {
+        try {
+            return (StemTracer) Class.forName(JFR_TRACER).newInstance();
+        } catch (Exception e) {
+            return null;
+        } catch (LinkageError e) {
+            // built without the jfr profile or running on a JVM without jdk.jfr
+            return null;
+        }
+    }
+
+    /**
+     * @param tracer tracer of the sampled tokens, null to stop tracing
+     */
+    public static void setTracer(StemTracer tracer) {
+        StemTrace.tracer = tracer;
+    }
+
+    public static StemTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * To be called only when {@link #ENABLED}
+     * @return true if the current token of this thread should be traced
+     */
+    public static boolean sample() {
+        StemTracer current = tracer;
+        if (current == null || !current.isEnabled()) {
+            return false;
+        }
+        int[] countdown = COUNTDOWN.get();
+        if (--countdown[0] > 0) {
+            return false;
+        }
+        countdown[0] = SAMPLE_INTERVAL;
+        return true;
+    }
+
+    /**
+     * @return last (up to three) chars of the word
+     */
+    public static String suffix(char[] s, int len) {
+        int start = Math.max(0, len - 3);
+        return new String(s, start, len - start);
+    }
+
+    /**
+     * Hands a traced token to the tracer, if it has not been removed meanwhile
+     */
+    public static void stemmed(String implementation, String suffix, int inputLength, String[] stages, long[] stageNanos,
+                               int firedStages, int stemLength) {
+        StemTracer current = tracer;
+        if (current != null) {
+            current.stemmed(implementation, suffix, inputLength, stages, stageNanos, firedStages, stemLength);
+        }
+    }
+}
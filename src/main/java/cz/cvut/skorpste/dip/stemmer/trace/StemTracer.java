@@ -0,0 +1,24 @@
+package cz.cvut.skorpste.dip.stemmer.trace;
+
+/**
+ * Receiver of the sampled tokens of {@link StemTrace}.
+ */
+public interface StemTracer {
+    /**
+     * @return false when nobody listens, the tokens are then neither sampled nor timed
+     */
+    boolean isEnabled();
+
+    /**
+     * Called after a sampled token is stemmed, by the thread stemming it
+     * @param implementation name of the stemmer
+     * @param suffix last (up to three) chars of the input
+     * @param inputLength length of the input
+     * @param stages names of the stages run, in order
+     * @param stageNanos time spent in each stage
+     * @param firedStages bit i is set if stage i changed the word
+     * @param stemLength length of the stem
+     */
+    void stemmed(String implementation, String suffix, int inputLength, String[] stages, long[] stageNanos,
+                 int firedStages, int stemLength);
+}
@@ -0,0 +1,112 @@
+package org.tartarus.snowball.ext;
+
+import org.tartarus.snowball.Among;
+
+import java.util.Arrays;
+
+/**
+ * Dense automaton over the reversed strings of a Snowball {@link Among} table.
+ * <p>The word is walked backwards from the cursor once, the deepest node holding a string
+ * is the longest suffix in the table, the same one <code>find_among_b</code> finds
+ * by binary search and <code>substring_i</code> chains. Only tables without condition
+ * methods can be compiled, there the longest suffix is always the result.</p>
+ */
+final class AmongTrie {
+    /**
+     * Column of a char in the transition table, 0 for chars no string contains
+     */
+    private final int[] columns;
+    private final int width;
+    /**
+     * Transitions, node * width + column, 0 when there is none (the root is never a target)
+     */
+    private final int[] transitions;
+    /**
+     * Index of the string ending in the node + 1, 0 if there is none
+     */
+    private final int[] nodeAmong;
+
+    /**
+     * @return true if no string of the table has a condition method
+     */
+    static boolean canCompile(Among[] amongs) {
+        for (Among among : amongs) {
+            if (among.method != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    AmongTrie(Among[] amongs) {
+        if (!canCompile(amongs)) {
+            throw new IllegalArgumentException("Among with a condition method can not be compiled");
+        }
+        char maxChar = 0;
+        for (Among among : amongs) {
+            for (char c : among.s) {
+                maxChar = (char) Math.max(maxChar, c);
+            }
+        }
+        columns = new int[maxChar + 1];
+        int width = 1;
+        for (Among among : amongs) {
+            for (char c : among.s) {
+                if (columns[c] == 0) {
+                    columns[c] = width++;
+                }
+            }
+        }
+        this.width = width;
+
+        int[] transitions = new int[width];
+        int[] nodeAmong = new int[1];
+        int nodes = 1;
+        for (int a = 0; a < amongs.length; a++) {
+            char[] s = amongs[a].s;
+            int node = 0;
+            for (int i = s.length - 1; i >= 0; i--) {
+                int slot = node * width + columns[s[i]];
+                if (transitions[slot] == 0) {
+                    if ((nodes + 1) * width > transitions.length) {
+                        transitions = Arrays.copyOf(transitions, 2 * transitions.length + width);
+                    }
+                    transitions[slot] = nodes++;
+                }
+                node = transitions[slot];
+            }
+            if (node >= nodeAmong.length) {
+                nodeAmong = Arrays.copyOf(nodeAmong, Math.max(node + 1, 2 * nodeAmong.length));
+            }
+            nodeAmong[node] = a + 1;
+        }
+        this.transitions = Arrays.copyOf(transitions, nodes * width);
+        this.nodeAmong = Arrays.copyOf(nodeAmong, nodes);
+    }
+
+    /**
+     * Finds the longest string of the table the text ends with
+     * @param s text
+     * @param c cursor, the end of the text
+     * @param lb backward limit, the string must not reach before it
+     * @return index of the string in the table, -1 if none matches
+     */
+    int longest(char[] s, int c, int lb) {
+        int best = nodeAmong[0] - 1;
+        int node = 0;
+        for (int i = c - 1; i >= lb; i--) {
+            char ch = s[i];
+            if (ch >= columns.length || columns[ch] == 0) {
+                break;
+            }
+            node = transitions[node * width + columns[ch]];
+            if (node == 0) {
+                break;
+            }
+            if (nodeAmong[node] != 0) {
+                best = nodeAmong[node] - 1;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,122 @@
+package org.tartarus.snowball.ext;
+
+import org.tartarus.snowball.Among;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CzechHelebrandStemmer} resolving the backward among lookups through {@link AmongTrie}s.
+ * <p>The generated Among tables are compiled once when the class is loaded. Every
+ * <code>find_among_b</code> call then walks the suffix of the word once instead of running
+ * a binary search over the table, the stems are the same.
+ * Use it in {@link org.apache.lucene.analysis.snowball.SnowballFilter} as <code>"CzechHelebrandTrie"</code>.</p>
+ * <p>The postlude, which strips the diacritics char by char with a forward search of <code>a_0</code>,
+ * is done by a single lookup table pass.</p>
+ */
+public class CzechHelebrandTrieStemmer extends CzechHelebrandStemmer {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Letters the postlude writes for the results of <code>a_0</code>, result 16 is the empty string
+     */
+    private static final String POSTLUDE_LETTERS = "\0aeiouycdenrstuz";
+    private static final int POSTLUDE_NEXT = 16;
+
+    private static final Among[][] TABLES;
+    private static final AmongTrie[] TRIES;
+    private static final Among[] POSTLUDE;
+    /**
+     * Letter without the diacritic, 0 for letters the postlude keeps
+     */
+    private static final char[] POSTLUDE_TABLE;
+
+    static {
+        List<Among[]> tables = new ArrayList<Among[]>();
+        List<AmongTrie> tries = new ArrayList<AmongTrie>();
+        try {
+            for (Field field : CzechHelebrandStemmer.class.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == Among[].class) {
+                    field.setAccessible(true);
+                    Among[] table = (Among[]) field.get(null);
+                    if (AmongTrie.canCompile(table)) {
+                        tables.add(table);
+                        tries.add(new AmongTrie(table));
+                    }
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Can not read Among tables of CzechHelebrandStemmer", e);
+        }
+        TABLES = tables.toArray(new Among[tables.size()][]);
+        TRIES = tries.toArray(new AmongTrie[tries.size()]);
+
+        try {
+            Field field = CzechHelebrandStemmer.class.getDeclaredField("a_0");
+            field.setAccessible(true);
+            POSTLUDE = (Among[]) field.get(null);
+        } catch (Exception e) {
+            throw new RuntimeException("Can not read postlude table of CzechHelebrandStemmer", e);
+        }
+        char maxChar = 0;
+        for (Among among : POSTLUDE) {
+            if (among.s_size == 1) {
+                maxChar = (char) Math.max(maxChar, among.s[0]);
+            }
+        }
+        POSTLUDE_TABLE = new char[maxChar + 1];
+        for (Among among : POSTLUDE) {
+            if (among.s_size == 1) {
+                POSTLUDE_TABLE[among.s[0]] = POSTLUDE_LETTERS.charAt(among.result);
+            }
+        }
+    }
+
+    /**
+     * <code>a_0</code> is searched only by <code>r_postlude</code>, which replaces every letter
+     * with a diacritic from the cursor to the end of the word. The first search does that for
+     * the whole rest of the word and leaves the cursor at the end, where the postlude stops.
+     */
+    @Override
+    protected int find_among(Among v[], int v_size) {
+        if (v != POSTLUDE) {
+            return super.find_among(v, v_size);
+        }
+        char[] s = getCurrentBuffer();
+        for (; cursor < limit; cursor++) {
+            char c = s[cursor];
+            if (c < POSTLUDE_TABLE.length && POSTLUDE_TABLE[c] != 0) {
+                s[cursor] = POSTLUDE_TABLE[c];
+            }
+        }
+        return POSTLUDE_NEXT;
+    }
+
+    @Override
+    protected int find_among_b(Among v[], int v_size) {
+        for (int t = 0; t < TABLES.length; t++) {
+            if (TABLES[t] == v && v_size == v.length) {
+                int a = TRIES[t].longest(getCurrentBuffer(), cursor, limit_backward);
+                if (a < 0) {
+                    return 0;
+                }
+                cursor -= v[a].s_size;
+                return v[a].result;
+            }
+        }
+        return super.find_among_b(v, v_size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CzechHelebrandTrieStemmer;
+    }
+
+    @Override
+    public int hashCode() {
+        return CzechHelebrandTrieStemmer.class.getName().hashCode();
+    }
+}
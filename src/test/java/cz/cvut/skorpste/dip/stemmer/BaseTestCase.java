@@ -1,16 +1,43 @@
 package cz.cvut.skorpste.dip.stemmer;
 
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
 import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.util.ClasspathResourceLoader;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Created by stopka on 4.4.15.
  */
 abstract public class BaseTestCase extends BaseTokenStreamTestCase {
+    /**
+     * Text with repeated words and its stems by the Agressive stemmer
+     */
+    static final String TEXT = "pánové pánovi muži mužem soudcích kostmi písněmi knize kluci pánové muži knize";
+    static final String[] STEMS = { "pán", "pán", "muh", "muh", "soud", "kos", "pís", "knih", "klu", "pán", "muh", "knih" };
+
     abstract CzechAnalyzer.StemmerImpl getStemmerImpl();
     protected CzechAnalyzer createCzechAnalyzer(){
         return new CzechAnalyzer(getStemmerImpl());
     }
 
+    /**
+     * Agressive {@link CzechStemFilterFactory} informed with the classpath
+     * @param params names and values of further arguments, they can override the implementation
+     */
+    static CzechStemFilterFactory createFactory(String... params) throws IOException {
+        Map<String, String> args = new HashMap<String, String>();
+        args.put("implementation", "Agressive");
+        for (int i = 0; i < params.length; i += 2) {
+            args.put(params[i], params[i + 1]);
+        }
+        CzechStemFilterFactory factory = new CzechStemFilterFactory(args);
+        factory.inform(new ClasspathResourceLoader(BaseTestCase.class));
+        return factory;
+    }
+
     public void testRandomStrings() throws Exception {
         checkRandomData(random(), createCzechAnalyzer(), 1000*RANDOM_MULTIPLIER);
     }
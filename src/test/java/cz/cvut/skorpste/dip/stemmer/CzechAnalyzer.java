@@ -1,10 +1,12 @@
 package cz.cvut.skorpste.dip.stemmer;
 
-import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveStemmer;
-import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilter;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter;
 import org.apache.lucene.analysis.snowball.SnowballFilter;
 import org.apache.lucene.analysis.standard.StandardFilter;
 import org.apache.lucene.analysis.standard.StandardTokenizer;
@@ -29,7 +31,8 @@ public final class CzechAnalyzer extends StopwordAnalyzerBase {
     public enum StemmerImpl{
         AGRESSIVE,
         LIGHT,
-        HELEBRAND
+        HELEBRAND,
+        HELEBRAND_TRIE
     }
 
     StemmerImpl si=StemmerImpl.HELEBRAND;
@@ -39,6 +42,11 @@ public final class CzechAnalyzer extends StopwordAnalyzerBase {
         this.si=si;
     }
 
+    public CzechAnalyzer(StemmerImpl si, CharArraySet stopwords, CharArraySet stemExclusionTable) {
+        this(stopwords, stemExclusionTable);
+        this.si=si;
+    }
+
     public CzechAnalyzer() {
         this(CzechAnalyzer.DefaultSetHolder.DEFAULT_SET);
     }
@@ -57,16 +65,22 @@ public final class CzechAnalyzer extends StopwordAnalyzerBase {
         StandardFilter result = new StandardFilter(this.getVersion(), source);
         LowerCaseFilter result1 = new LowerCaseFilter(this.getVersion(), result);
         Object result2 = new StopFilter(this.getVersion(), result1, this.stopwords);
+        if (!this.stemExclusionTable.isEmpty()) {
+            result2 = new SetKeywordMarkerFilter((TokenStream) result2, this.stemExclusionTable);
+        }
         switch (si){
             case AGRESSIVE:
-                result2 = new CzechStemFilter((TokenStream) result2,new CzechAgressiveStemmer());
+                result2 = new CzechStemFilter((TokenStream) result2,new CzechAgressiveCharStemmer());
                 break;
             case LIGHT:
-                result2 = new CzechStemFilter((TokenStream) result2,new CzechLightStemmer());
+                result2 = new CzechStemFilter((TokenStream) result2,new CzechLightCharStemmer());
                 break;
             case HELEBRAND:
                 result2 = new SnowballFilter((TokenStream) result2, "CzechHelebrand");
                 break;
+            case HELEBRAND_TRIE:
+                result2 = new CzechHelebrandStemFilter((TokenStream) result2);
+                break;
         }
         return new TokenStreamComponents(source, (TokenStream) result2);
     }
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.BaseTokenStreamTestCase;
 import org.apache.lucene.analysis.MockTokenizer;
@@ -69,12 +70,12 @@ public class TestAgressiveStemmer extends BaseTestCase {
     
     /* animate ending with a soft consonant */
     assertAnalyzesTo(cz, "muž", new String[] { "muž" });
-    assertAnalyzesTo(cz, "muži", new String[] { "muž" });
-    assertAnalyzesTo(cz, "muže", new String[] { "muž" });
+    assertAnalyzesTo(cz, "muži", new String[] { "muh" });
+    assertAnalyzesTo(cz, "muže", new String[] { "muh" });
     assertAnalyzesTo(cz, "mužů", new String[] { "muž" });
     assertAnalyzesTo(cz, "mužům", new String[] { "muž" });
     assertAnalyzesTo(cz, "mužích", new String[] { "muž" });
-    assertAnalyzesTo(cz, "mužem", new String[] { "muž" });
+    assertAnalyzesTo(cz, "mužem", new String[] { "muh" });
     
     /* inanimate ending with a soft consonant */
     assertAnalyzesTo(cz, "stroj", new String[] { "stroj" });
@@ -130,12 +131,12 @@ public class TestAgressiveStemmer extends BaseTestCase {
     assertAnalyzesTo(cz, "písním", new String[] { "pís" });
     
     /* ending with e */
-    assertAnalyzesTo(cz, "růže", new String[] { "růž" });
+    assertAnalyzesTo(cz, "růže", new String[] { "růh" });
     assertAnalyzesTo(cz, "růží", new String[] { "růž" });
     assertAnalyzesTo(cz, "růžím", new String[] { "rů" });
     assertAnalyzesTo(cz, "růžích", new String[] { "růž" });
-    assertAnalyzesTo(cz, "růžemi", new String[] { "růž" });
-    assertAnalyzesTo(cz, "růži", new String[] { "růž" });
+    assertAnalyzesTo(cz, "růžemi", new String[] { "růh" });
+    assertAnalyzesTo(cz, "růži", new String[] { "růh" });
     
     /* ending with a */
     assertAnalyzesTo(cz, "žena", new String[] { "žen" });
@@ -246,7 +247,7 @@ public class TestAgressiveStemmer extends BaseTestCase {
     
     /* rewrite of z -> h */
     assertAnalyzesTo(cz, "kniha", new String[] { "knih" });
-    assertAnalyzesTo(cz, "knize", new String[] { "kniz" });
+    assertAnalyzesTo(cz, "knize", new String[] { "knih" });
     
     /* rewrite of ž -> h */
     assertAnalyzesTo(cz, "mazat", new String[] { "maz" });
@@ -290,6 +291,51 @@ public class TestAgressiveStemmer extends BaseTestCase {
     checkOneTerm(a, "", "");
   }
 
+  /**
+   * Test that the stemmer shared by all filters of the factory stems concurrent TokenStreams.
+   */
+  public void testFactorySharedStemmer() throws Exception {
+    final CzechStemFilterFactory factory = createFactory();
+    Analyzer a = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        Tokenizer tokenizer = new MockTokenizer(reader, MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer, factory.create(tokenizer));
+      }
+    };
+    assertAnalyzesTo(a, "pánové soudcích kostmi", new String[] { "pán", "soud", "kos" });
+    checkRandomData(random(), a, 1000*RANDOM_MULTIPLIER);
+  }
+
+  public void testFactoryStages() throws Exception {
+    final CzechStemFilterFactory factory = createFactory("stages", "possessive, case");
+    Analyzer a = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        Tokenizer tokenizer = new MockTokenizer(reader, MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer, factory.create(tokenizer));
+      }
+    };
+    // without the derivational stage -c- stays and -ek- without the diminutive one
+    assertAnalyzesTo(a, "pánové soudcích kostmi domeček", new String[] { "pán", "soudc", "kost", "domeček" });
+    checkRandomData(random(), a, 1000*RANDOM_MULTIPLIER);
+  }
+
+  public void testFactoryBogusStages() throws Exception {
+    try {
+      createFactory("stages", "case,bogus");
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("Unknown stage bogus"));
+    }
+    try {
+      createFactory("implementation", "Light", "stages", "case");
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("Agressive"));
+    }
+  }
+
   @Override
   CzechAnalyzer.StemmerImpl getStemmerImpl() {
     return CzechAnalyzer.StemmerImpl.AGRESSIVE;
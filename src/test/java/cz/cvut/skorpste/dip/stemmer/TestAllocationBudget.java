@@ -0,0 +1,128 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilter;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.SharedStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StreamStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.snowball.SnowballFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.util.LuceneTestCase;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Test that the stem filters stay within a budget of bytes allocated per token.
+ * <p>Every filter stems {@link #TOKENS} tokens after a warm up, the allocated bytes of the thread
+ * are read from {@link com.sun.management.ThreadMXBean}. The budget is
+ * {@link #DEFAULT_BUDGET} bytes per token, change it with <code>-Dtests.allocation.budget=N</code>.
+ * The tests are skipped on JVMs which can not count the allocated bytes.</p>
+ */
+public class TestAllocationBudget extends LuceneTestCase {
+  private static final long DEFAULT_BUDGET = 8;
+  private static final long BUDGET = Long.getLong("tests.allocation.budget", DEFAULT_BUDGET);
+  private static final int TOKENS = 200000;
+  private static final int WARMUP_ROUNDS = 5;
+  private static final String[] WORDS = {
+      "pánové", "pánovi", "muži", "mužem", "soudcích", "kostmi", "písněmi", "knize", "kluci", "hradech",
+      "ženami", "městech", "učitelé", "studentům", "zákonného", "nejkrásnější", "vlakem", "obchodníkovi",
+      "cesta", "domy", "rozhodování", "hospodářství", "a", "v", "kabát", "národních", "stromů", "nej"
+  };
+
+  /**
+   * Cycles over the words without allocating
+   */
+  private static final class WordsTokenStream extends TokenStream {
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final char[][] words;
+    private int next;
+
+    WordsTokenStream(String[] words) {
+      this.words = new char[words.length][];
+      for (int i = 0; i < words.length; i++) {
+        this.words[i] = words[i].toCharArray();
+      }
+    }
+
+    @Override
+    public boolean incrementToken() {
+      if (next == TOKENS) {
+        return false;
+      }
+      clearAttributes();
+      char[] word = words[next++ % words.length];
+      termAtt.copyBuffer(word, 0, word.length);
+      return true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      super.reset();
+      next = 0;
+    }
+  }
+
+  private static int consume(TokenStream stream) throws IOException {
+    CharTermAttribute termAtt = stream.getAttribute(CharTermAttribute.class);
+    int chars = 0;
+    stream.reset();
+    while (stream.incrementToken()) {
+      chars += termAtt.length();
+    }
+    stream.end();
+    return chars;
+  }
+
+  private static void assertWithinBudget(TokenStream stream) throws IOException {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    assumeTrue("Allocated bytes of threads are not available", threads instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+    assumeTrue("Allocated bytes of threads are not supported", bean.isThreadAllocatedMemorySupported());
+    if (!bean.isThreadAllocatedMemoryEnabled()) {
+      bean.setThreadAllocatedMemoryEnabled(true);
+    }
+    long thread = Thread.currentThread().getId();
+    try {
+      for (int i = 0; i < WARMUP_ROUNDS; i++) {
+        consume(stream);
+      }
+      long before = bean.getThreadAllocatedBytes(thread);
+      int chars = consume(stream);
+      long allocated = bean.getThreadAllocatedBytes(thread) - before;
+      assertTrue(chars > 0);
+      double perToken = (double) allocated / TOKENS;
+      assertTrue("Allocated " + perToken + " bytes per token, budget is " + BUDGET, perToken <= BUDGET);
+    } finally {
+      stream.close();
+    }
+  }
+
+  public void testLight() throws IOException {
+    assertWithinBudget(new CzechStemFilter(new WordsTokenStream(WORDS), new CzechLightCharStemmer()));
+  }
+
+  public void testAgressive() throws IOException {
+    assertWithinBudget(new CzechStemFilter(new WordsTokenStream(WORDS), new CzechAgressiveCharStemmer()));
+  }
+
+  public void testStreamCache() throws IOException {
+    assertWithinBudget(new CzechStemFilter(new WordsTokenStream(WORDS), new CzechAgressiveCharStemmer(),
+        new StreamStemCache(1000)));
+  }
+
+  public void testSharedCache() throws IOException {
+    assertWithinBudget(new CzechStemFilter(new WordsTokenStream(WORDS), new CzechAgressiveCharStemmer(),
+        new SharedStemCache(1000)));
+  }
+
+  public void testHelebrand() throws IOException {
+    assertWithinBudget(new SnowballFilter(new WordsTokenStream(WORDS), "CzechHelebrand"));
+  }
+
+  public void testHelebrandTrie() throws IOException {
+    assertWithinBudget(new CzechHelebrandStemFilter(new WordsTokenStream(WORDS)));
+  }
+}
@@ -0,0 +1,195 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.RuleProfile;
+import org.apache.lucene.util.LuceneTestCase;
+import org.tartarus.snowball.SnowballProgram;
+import org.tartarus.snowball.ext.CzechHelebrandStemmer;
+import org.tartarus.snowball.ext.CzechHelebrandTrieStemmer;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Checks that the optimised stemmers produce the same stems as the original ones.
+ */
+public class TestCharStemmerEquivalence extends LuceneTestCase {
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzáčďéěíňóřšťúůýž";
+    /**
+     * Uppercase letters with I, lowercased to a dotless i under a Turkish default locale,
+     * the dotted capital I, the Greek capital sigma, lowercased by its context, and a supplementary Deseret letter
+     */
+    private static final String UPPERCASE = "ABCIZÁČĎÉĚÍŇÓŘŠŤÚŮÝŽİΣ\uD801\uDC00";
+    private static final String[] ENDINGS = {
+            "a", "e", "i", "o", "u", "y", "á", "é", "í", "ý", "ě", "ů",
+            "em", "es", "ou", "ov", "in", "ech", "ich", "ích", "ého", "ími", "atech", "ětem",
+            "ci", "ce", "zi", "že", "čti", "ejš", "ějš", "ek", "íček", "oušek",
+            "ajzn", "isk", "obinec", "ionář", "nost", "itel", "čan", "ník", "ec", "stv",
+            "ovat", "ování", "ávat", "ující", "ejte", "ěji", "ení", "ismus", "ista", "ička", "ičce", "ovitý"
+    };
+    private static final String[] TABLES = {
+            "light.case", "light.possessive", "agressive.case", "agressive.possessive",
+            "agressive.comparative", "agressive.diminutive", "agressive.augmentative", "agressive.derivational"
+    };
+
+    public void testLight() {
+        assertEquivalent(new CzechLightStemmer(), new CzechLightCharStemmer());
+    }
+
+    public void testAgressive() {
+        assertEquivalent(new CzechAgressiveStemmer(), new CzechAgressiveCharStemmer());
+    }
+
+    public void testMixedCase() {
+        assertMixedCaseEquivalent();
+    }
+
+    public void testMixedCaseTurkish() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertMixedCaseEquivalent();
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    /**
+     * String.toLowerCase turns the dotted capital I into 'i' and U+0307 outside the Turkish locales,
+     * the char stemmers keep the length of the word and make it a single 'i'
+     */
+    public void testDottedCapitalI() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.ROOT);
+        try {
+            CzechStemmer[] references = { new CzechLightStemmer(), new CzechAgressiveStemmer() };
+            CzechCharStemmer[] stemmers = { new CzechLightCharStemmer(), new CzechAgressiveCharStemmer() };
+            for (int s = 0; s < stemmers.length; s++) {
+                char[] buffer = "HRAD\u0130CH".toCharArray();
+                int len = stemmers[s].stem(buffer, buffer.length);
+                assertEquals(references[s].stem("hradich"), new String(buffer, 0, len));
+                assertEquals("hradi\u0307", references[s].stem("HRAD\u0130"));
+            }
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    private void assertMixedCaseEquivalent() {
+        CzechStemmer[] references = { new CzechLightStemmer(), new CzechAgressiveStemmer() };
+        CzechCharStemmer[] stemmers = { new CzechLightCharStemmer(), new CzechAgressiveCharStemmer() };
+        Random random = random();
+        int iterations = atLeast(10000);
+        for (int i = 0; i < iterations; i++) {
+            StringBuilder sb = new StringBuilder(randomWord(random));
+            int upper = 1 + random.nextInt(3);
+            for (int j = 0; j < upper; j++) {
+                int c = random.nextInt(UPPERCASE.length() - 1);
+                if (Character.isHighSurrogate(UPPERCASE.charAt(c))) {
+                    sb.insert(random.nextInt(sb.length() + 1), UPPERCASE, c, c + 2);
+                } else if (!Character.isLowSurrogate(UPPERCASE.charAt(c))) {
+                    sb.setCharAt(random.nextInt(sb.length()), UPPERCASE.charAt(c));
+                }
+            }
+            String word = sb.toString();
+            if (word.toLowerCase().length() != word.length()) {
+                // see testDottedCapitalI
+                continue;
+            }
+            for (int s = 0; s < stemmers.length; s++) {
+                char[] buffer = word.toCharArray();
+                int len = stemmers[s].stem(buffer, buffer.length);
+                assertEquals("stem of " + word, references[s].stem(word), new String(buffer, 0, len));
+            }
+        }
+    }
+
+    public void testLightReordered() {
+        for (int i = 0; i < 10; i++) {
+            assertEquivalent(new CzechLightStemmer(), new CzechLightCharStemmer(randomProfile(random())));
+        }
+    }
+
+    public void testAgressiveReordered() {
+        for (int i = 0; i < 10; i++) {
+            assertEquivalent(new CzechAgressiveStemmer(), new CzechAgressiveCharStemmer(randomProfile(random())));
+        }
+    }
+
+    public void testProfileRoundTrip() throws Exception {
+        RuleProfile profile = randomProfile(random());
+        StringWriter out = new StringWriter();
+        profile.write(out);
+        RuleProfile read = RuleProfile.read(new StringReader(out.toString()));
+        assertEquals(profile.getTables(), read.getTables());
+        for (String table : profile.getTables()) {
+            assertEquals(profile.getSuffixes(table), read.getSuffixes(table));
+            for (String suffix : profile.getSuffixes(table)) {
+                assertEquals(profile.getTested(table, suffix), read.getTested(table, suffix));
+                assertEquals(profile.getFired(table, suffix), read.getFired(table, suffix));
+            }
+        }
+    }
+
+    /**
+     * Profile with random counts of the endings and their suffixes, so that the tables get laid out differently
+     */
+    private static RuleProfile randomProfile(Random random) {
+        RuleProfile profile = new RuleProfile();
+        for (String table : TABLES) {
+            for (String ending : ENDINGS) {
+                for (int i = 0; i < ending.length(); i++) {
+                    long tested = random.nextInt(1000);
+                    profile.add(table, ending.substring(i), tested, random.nextInt(1 + (int) tested));
+                }
+            }
+        }
+        return profile;
+    }
+
+    public void testHelebrandTrie() {
+        SnowballProgram reference = new CzechHelebrandStemmer();
+        SnowballProgram stemmer = new CzechHelebrandTrieStemmer();
+        Random random = random();
+        int iterations = atLeast(10000);
+        for (int i = 0; i < iterations; i++) {
+            String word = randomWord(random);
+            reference.setCurrent(word);
+            reference.stem();
+            stemmer.setCurrent(word);
+            stemmer.stem();
+            assertEquals("stem of " + word, reference.getCurrent(), stemmer.getCurrent());
+        }
+    }
+
+    private void assertEquivalent(CzechStemmer reference, CzechCharStemmer stemmer) {
+        Random random = random();
+        int iterations = atLeast(10000);
+        for (int i = 0; i < iterations; i++) {
+            String word = randomWord(random);
+            char[] buffer = word.toCharArray();
+            int len = stemmer.stem(buffer, buffer.length);
+            assertEquals("stem of " + word, reference.stem(word), new String(buffer, 0, len));
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int len = 1 + random.nextInt(8);
+        for (int i = 0; i < len; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        int endings = random.nextInt(3);
+        for (int i = 0; i < endings; i++) {
+            sb.append(ENDINGS[random.nextInt(ENDINGS.length)]);
+        }
+        return sb.toString();
+    }
+}
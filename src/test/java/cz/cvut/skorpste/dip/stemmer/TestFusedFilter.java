@@ -0,0 +1,234 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.fused.CzechFusedFilter;
+import cz.cvut.skorpste.dip.stemmer.fused.CzechFusedFilterFactory;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.analysis.util.ResourceLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Test that {@link CzechFusedFilter} gives the same tokens as the unfused chain of {@link CzechAnalyzer}.
+ */
+public class TestFusedFilter extends BaseTokenStreamTestCase {
+  private static final List<String> STOPWORDS = Arrays.asList("a", "se", "na", "je", "že", "který", "jako");
+  private static final List<String> EXCLUSIONS = Arrays.asList("pánové", "kostmi", "čeština");
+  private static final String[] WORDS = {
+      "pánové", "soudcích", "kostmi", "ženami", "chlapec", "hradech", "městečko", "nejkrásnější",
+      "učitelův", "čeština", "stavení", "domeček", "Praha", "PRAZE", "Kosti", "republika", "x",
+  };
+
+  private static Analyzer createFusedAnalyzer(final CzechAnalyzer.StemmerImpl si) {
+    final CharArraySet stopwords = new CharArraySet(TEST_VERSION_CURRENT, STOPWORDS, false);
+    final CharArraySet exclusions = new CharArraySet(TEST_VERSION_CURRENT, EXCLUSIONS, false);
+    return new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        StandardTokenizer source = new StandardTokenizer(TEST_VERSION_CURRENT, reader);
+        TokenStream result = new StandardFilter(TEST_VERSION_CURRENT, source);
+        switch (si) {
+          case LIGHT:
+            result = new CzechFusedFilter(TEST_VERSION_CURRENT, result, stopwords, exclusions, new CzechLightCharStemmer());
+            break;
+          case AGRESSIVE:
+            result = new CzechFusedFilter(TEST_VERSION_CURRENT, result, stopwords, exclusions, new CzechAgressiveCharStemmer());
+            break;
+          default:
+            result = new CzechFusedFilter(TEST_VERSION_CURRENT, result, stopwords, exclusions);
+            break;
+        }
+        return new TokenStreamComponents(source, result);
+      }
+    };
+  }
+
+  private static CzechAnalyzer createUnfusedAnalyzer(CzechAnalyzer.StemmerImpl si) {
+    return new CzechAnalyzer(si, new CharArraySet(TEST_VERSION_CURRENT, STOPWORDS, false),
+        new CharArraySet(TEST_VERSION_CURRENT, EXCLUSIONS, false));
+  }
+
+  private static String randomText(Random random) {
+    StringBuilder text = new StringBuilder();
+    int count = random.nextInt(20);
+    for (int i = 0; i < count; i++) {
+      String word;
+      switch (random.nextInt(3)) {
+        case 0:
+          word = STOPWORDS.get(random.nextInt(STOPWORDS.size()));
+          break;
+        case 1:
+          word = EXCLUSIONS.get(random.nextInt(EXCLUSIONS.size()));
+          break;
+        default:
+          word = WORDS[random.nextInt(WORDS.length)];
+          break;
+      }
+      if (random.nextInt(4) == 0) {
+        word = word.toUpperCase(Locale.ROOT);
+      }
+      text.append(word).append(random.nextBoolean() ? " " : ", ");
+    }
+    return text.toString();
+  }
+
+  /**
+   * Term, position increment, offsets and keyword flag of every token and the final position increment and offset
+   */
+  private static List<String> tokens(Analyzer analyzer, String text) throws IOException {
+    List<String> tokens = new ArrayList<String>();
+    TokenStream stream = analyzer.tokenStream("field", text);
+    try {
+      CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+      PositionIncrementAttribute posIncAtt = stream.addAttribute(PositionIncrementAttribute.class);
+      OffsetAttribute offsetAtt = stream.addAttribute(OffsetAttribute.class);
+      KeywordAttribute keywordAtt = stream.addAttribute(KeywordAttribute.class);
+      stream.reset();
+      while (stream.incrementToken()) {
+        tokens.add(termAtt + "/" + posIncAtt.getPositionIncrement() + "/" + offsetAtt.startOffset()
+            + "-" + offsetAtt.endOffset() + "/" + keywordAtt.isKeyword());
+      }
+      stream.end();
+      tokens.add("end/" + posIncAtt.getPositionIncrement() + "/" + offsetAtt.endOffset());
+    } finally {
+      stream.close();
+    }
+    return tokens;
+  }
+
+  private void assertSameTokens(CzechAnalyzer.StemmerImpl fused, CzechAnalyzer.StemmerImpl unfused) throws IOException {
+    Analyzer fusedAnalyzer = createFusedAnalyzer(fused);
+    Analyzer unfusedAnalyzer = createUnfusedAnalyzer(unfused);
+    Random random = random();
+    for (int i = 0; i < 1000 * RANDOM_MULTIPLIER; i++) {
+      String text = randomText(random);
+      assertEquals(text, tokens(unfusedAnalyzer, text), tokens(fusedAnalyzer, text));
+    }
+  }
+
+  public void testLight() throws IOException {
+    assertSameTokens(CzechAnalyzer.StemmerImpl.LIGHT, CzechAnalyzer.StemmerImpl.LIGHT);
+  }
+
+  public void testAgressive() throws IOException {
+    assertSameTokens(CzechAnalyzer.StemmerImpl.AGRESSIVE, CzechAnalyzer.StemmerImpl.AGRESSIVE);
+  }
+
+  public void testHelebrand() throws IOException {
+    assertSameTokens(CzechAnalyzer.StemmerImpl.HELEBRAND, CzechAnalyzer.StemmerImpl.HELEBRAND);
+    assertSameTokens(CzechAnalyzer.StemmerImpl.HELEBRAND, CzechAnalyzer.StemmerImpl.HELEBRAND_TRIE);
+  }
+
+  public void testPositions() throws IOException {
+    assertAnalyzesTo(createFusedAnalyzer(CzechAnalyzer.StemmerImpl.AGRESSIVE), "Pánové a soudcích KOSTMI se",
+        new String[] { "pánové", "soud", "kostmi" },
+        new int[] { 0, 9, 18 },
+        new int[] { 6, 17, 24 },
+        new int[] { 1, 2, 1 });
+  }
+
+  public void testRandomStrings() throws IOException {
+    for (CzechAnalyzer.StemmerImpl si : Arrays.asList(CzechAnalyzer.StemmerImpl.LIGHT,
+        CzechAnalyzer.StemmerImpl.AGRESSIVE, CzechAnalyzer.StemmerImpl.HELEBRAND)) {
+      checkRandomData(random(), createFusedAnalyzer(si), 1000*RANDOM_MULTIPLIER);
+    }
+  }
+
+  private static CzechFusedFilterFactory createFactory(String... params) throws IOException {
+    Map<String, String> args = new HashMap<String, String>();
+    args.put("luceneMatchVersion", TEST_VERSION_CURRENT.toString());
+    for (int i = 0; i < params.length; i += 2) {
+      args.put(params[i], params[i + 1]);
+    }
+    CzechFusedFilterFactory factory = new CzechFusedFilterFactory(args);
+    factory.inform(new StringResourceLoader());
+    return factory;
+  }
+
+  public void testFactory() throws Exception {
+    final CzechFusedFilterFactory factory = createFactory("implementation", "Agressive",
+        "words", "stopwords.txt", "protected", "protwords.txt");
+    Analyzer a = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        StandardTokenizer tokenizer = new StandardTokenizer(TEST_VERSION_CURRENT, reader);
+        return new TokenStreamComponents(tokenizer, factory.create(tokenizer));
+      }
+    };
+    Analyzer unfused = createUnfusedAnalyzer(CzechAnalyzer.StemmerImpl.AGRESSIVE);
+    Random random = random();
+    for (int i = 0; i < 100 * RANDOM_MULTIPLIER; i++) {
+      String text = randomText(random);
+      assertEquals(text, tokens(unfused, text), tokens(a, text));
+    }
+    checkRandomData(random(), a, 1000*RANDOM_MULTIPLIER);
+  }
+
+  public void testBogusArguments() throws Exception {
+    try {
+      createFactory("bogusArg", "bogusValue");
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("Unknown parameters"));
+    }
+    try {
+      createFactory("implementation", "Bogus");
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("implementation"));
+    }
+  }
+
+  /**
+   * Serves the stopwords and exclusions of the test as files
+   */
+  private static final class StringResourceLoader implements ResourceLoader {
+    @Override
+    public InputStream openResource(String resource) throws IOException {
+      List<String> words;
+      if ("stopwords.txt".equals(resource)) {
+        words = STOPWORDS;
+      } else if ("protwords.txt".equals(resource)) {
+        words = EXCLUSIONS;
+      } else {
+        throw new IOException("Resource not found: " + resource);
+      }
+      StringBuilder file = new StringBuilder("# test words\n");
+      for (String word : words) {
+        file.append(word).append('\n');
+      }
+      return new ByteArrayInputStream(file.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public <T> Class<? extends T> findClass(String cname, Class<T> expectedType) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> T newInstance(String cname, Class<T> expectedType) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
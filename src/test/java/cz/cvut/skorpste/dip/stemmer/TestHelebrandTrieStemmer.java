@@ -0,0 +1,49 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilterFactory;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.tartarus.snowball.ext.CzechHelebrandStemmer;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the Helebrand tests against {@link org.tartarus.snowball.ext.CzechHelebrandTrieStemmer}
+ * in {@link cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilter}, the stems have to be the same.
+ */
+public class TestHelebrandTrieStemmer extends TestHelebrandStemmer {
+
+  public void testFactory() throws Exception {
+    String[] words = { "pánové", "chlapec", "soudcích", "ženami", "bude", "ano" };
+    String[] stems = new String[words.length];
+    CzechHelebrandStemmer stemmer = new CzechHelebrandStemmer();
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < words.length; i++) {
+      stemmer.setCurrent(words[i]);
+      stemmer.stem();
+      stems[i] = stemmer.getCurrent();
+      text.append(words[i]).append(' ');
+    }
+    CzechHelebrandStemFilterFactory factory = new CzechHelebrandStemFilterFactory(new HashMap<String, String>());
+    TokenStream stream = factory.create(new MockTokenizer(new StringReader(text.toString()), MockTokenizer.WHITESPACE, false));
+    assertTokenStreamContents(stream, stems);
+  }
+
+  public void testBogusArguments() throws Exception {
+    Map<String, String> args = new HashMap<String, String>();
+    args.put("bogusArg", "bogusValue");
+    try {
+      new CzechHelebrandStemFilterFactory(args);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("Unknown parameters"));
+    }
+  }
+
+  @Override
+  CzechAnalyzer.StemmerImpl getStemmerImpl() {
+    return CzechAnalyzer.StemmerImpl.HELEBRAND_TRIE;
+  }
+}
@@ -0,0 +1,50 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.stats.LatencyHistogram;
+import org.apache.lucene.util.LuceneTestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test the percentiles of {@link LatencyHistogram}.
+ */
+public class TestLatencyHistogram extends LuceneTestCase {
+
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    assertEquals(0, histogram.getMax());
+  }
+
+  public void testSmallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 20; i++) {
+      histogram.record(i);
+    }
+    assertEquals(20, histogram.getCount());
+    assertEquals(10, histogram.getValueAtPercentile(50));
+    assertEquals(19, histogram.getValueAtPercentile(95));
+    assertEquals(20, histogram.getValueAtPercentile(100));
+  }
+
+  public void testRelativeError() {
+    Random random = random();
+    LatencyHistogram histogram = new LatencyHistogram();
+    long[] values = new long[atLeast(10000)];
+    for (int i = 0; i < values.length; i++) {
+      // log-uniform from 1 µs to 1 s, like latencies
+      values[i] = (long) Math.pow(10, 3 + 6 * random.nextDouble());
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+    for (double percentile : new double[] { 50, 90, 99, 99.9 }) {
+      long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+      long value = histogram.getValueAtPercentile(percentile);
+      assertTrue(percentile + ": " + value + " for " + exact, value >= exact && value <= exact * 1.04);
+    }
+    assertEquals(values[values.length - 1], histogram.getMax());
+    assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+  }
+}
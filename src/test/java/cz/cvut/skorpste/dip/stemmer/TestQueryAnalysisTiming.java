@@ -0,0 +1,76 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.solr.QueryAnalysisTimingComponent;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+import org.junit.BeforeClass;
+
+/**
+ * Test that {@link QueryAnalysisTimingComponent} times the query analysis of the Czech field types of a core.
+ */
+public class TestQueryAnalysisTiming extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig.xml", "schema.xml", getFile("solr").getAbsolutePath());
+    assertU(adoc("id", "1", "text", "pánové soudcích", "title", "Pánové", "fused", "pánové"));
+    assertU(commit());
+  }
+
+  private static QueryAnalysisTimingComponent getComponent() {
+    return (QueryAnalysisTimingComponent) h.getCore().getSearchComponent(QueryAnalysisTimingComponent.COMPONENT_NAME);
+  }
+
+  private static long getRequests() {
+    return getRequests("text_cz");
+  }
+
+  private static long getRequests(String fieldType) {
+    return (Long) getComponent().getStatistics().get(fieldType + ".requests");
+  }
+
+  public void testQueryIsTimed() throws Exception {
+    long requests = getRequests();
+    assertQ(req("q", "text:pánovi"), "//result[@numFound='1']");
+    assertEquals(requests + 1, getRequests());
+    NamedList statistics = getComponent().getStatistics();
+    assertTrue((Double) statistics.get("text_cz.max") > 0);
+    assertNull(statistics.get("text_ws.requests"));
+  }
+
+  public void testFusedFieldTypeIsTimed() throws Exception {
+    long requests = getRequests("text_cz_fused");
+    assertQ(req("q", "fused:pánovi"), "//result[@numFound='1']");
+    assertEquals(requests + 1, getRequests("text_cz_fused"));
+  }
+
+  public void testOtherFieldTypeIsNotTimed() throws Exception {
+    long requests = getRequests();
+    assertQ(req("q", "title:Pánové"), "//result[@numFound='1']");
+    assertEquals(requests, getRequests());
+  }
+
+  public void testDebugTiming() throws Exception {
+    assertQ(req("q", "text:soudců", "debug", "timing"),
+        "//result[@numFound='1']",
+        "//lst[@name='debug']/lst[@name='czechAnalysisTiming']/double[@name='text_cz']");
+  }
+
+  public void testFailedRequestEndsTiming() throws Exception {
+    // the query parser fails after the component started timing the request
+    assertQEx("unbalanced parenthesis", req("q", "text:(pánové"), SolrException.ErrorCode.BAD_REQUEST);
+    assertFalse(getComponent().isTiming());
+    assertQ(req("q", "text:pánové"), "//result[@numFound='1']");
+    assertFalse(getComponent().isTiming());
+  }
+
+  public void testInformTwice() throws Exception {
+    // a second core sharing the schema informs the component again, the analyzer must not be wrapped twice
+    getComponent().inform(h.getCore());
+    long requests = getRequests();
+    assertQ(req("q", "text:pánové"), "//result[@numFound='1']");
+    assertEquals(requests + 1, getRequests());
+    assertEquals(1, getComponent().getStatistics().getAll("text_cz.requests").size());
+  }
+}
@@ -0,0 +1,116 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilter;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.OffHeapStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.SharedStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StreamStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static cz.cvut.skorpste.dip.stemmer.BaseTestCase.STEMS;
+import static cz.cvut.skorpste.dip.stemmer.BaseTestCase.TEXT;
+import static cz.cvut.skorpste.dip.stemmer.BaseTestCase.createFactory;
+
+/**
+ * Test the stem caches of {@link CzechStemFilter}.
+ */
+public class TestStemCache extends BaseTokenStreamTestCase {
+  private static Analyzer createAnalyzer(final StemCache cache) {
+    return new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        Tokenizer tokenizer = new MockTokenizer(reader, MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer, new CzechStemFilter(tokenizer, new CzechAgressiveCharStemmer(), cache));
+      }
+    };
+  }
+
+  public void testStreamCache() throws IOException {
+    StreamStemCache cache = new StreamStemCache(4);
+    assertTokenStreamContents(createAnalyzer(cache).tokenStream("dummy", TEXT), STEMS);
+    assertTrue(cache.size() <= 4);
+    assertEquals(STEMS.length, cache.getHits() + cache.getMisses());
+  }
+
+  public void testSharedCache() throws IOException {
+    SharedStemCache cache = new SharedStemCache(100);
+    Analyzer analyzer = createAnalyzer(cache);
+    assertTokenStreamContents(analyzer.tokenStream("dummy", TEXT), STEMS);
+    assertEquals(3, cache.getHits());
+    assertEquals(9, cache.getMisses());
+    assertTokenStreamContents(analyzer.tokenStream("dummy", TEXT), STEMS);
+    assertEquals(15, cache.getHits());
+  }
+
+  public void testSharedCacheIsBounded() throws IOException {
+    SharedStemCache cache = new SharedStemCache(50);
+    Analyzer analyzer = createAnalyzer(cache);
+    for (int i = 0; i < 1000; i++) {
+      assertAnalyzesTo(analyzer, "slovo" + i + "ech", new String[] { "slovo" + i });
+    }
+    assertTrue(cache.size() <= 50);
+  }
+
+  public void testOffHeapCache() throws IOException {
+    OffHeapStemCache cache = new OffHeapStemCache(100);
+    Analyzer analyzer = createAnalyzer(cache);
+    assertTokenStreamContents(analyzer.tokenStream("dummy", TEXT), STEMS);
+    assertEquals(3, cache.getHits());
+    assertEquals(9, cache.getMisses());
+    assertTokenStreamContents(analyzer.tokenStream("dummy", TEXT), STEMS);
+    assertEquals(15, cache.getHits());
+    assertTrue(cache.getOffHeapBytes() > 0);
+  }
+
+  public void testOffHeapCacheIsBounded() throws IOException {
+    OffHeapStemCache cache = new OffHeapStemCache(50);
+    Analyzer analyzer = createAnalyzer(cache);
+    for (int i = 0; i < 1000; i++) {
+      assertAnalyzesTo(analyzer, "slovo" + i + "ech", new String[] { "slovo" + i });
+    }
+    assertTrue(cache.size() <= 50);
+  }
+
+  public void testRandomStrings() throws Exception {
+    checkRandomData(random(), createAnalyzer(new SharedStemCache(64)), 1000*RANDOM_MULTIPLIER);
+    checkRandomData(random(), createAnalyzer(new OffHeapStemCache(64)), 1000*RANDOM_MULTIPLIER);
+  }
+
+  public void testFactory() throws Exception {
+    CzechStemFilterFactory factory = createFactory("cacheSize", "100", "cacheScope", "shared");
+    for (int i = 0; i < 2; i++) {
+      TokenStream stream = factory.create(new MockTokenizer(new StringReader(TEXT), MockTokenizer.WHITESPACE, false));
+      assertTokenStreamContents(stream, STEMS);
+    }
+    assertEquals(15, factory.getCacheHits());
+    assertEquals(9, factory.getCacheMisses());
+  }
+
+  public void testOffHeapFactory() throws Exception {
+    CzechStemFilterFactory factory = createFactory("cacheSize", "100", "cacheBackend", "offheap");
+    for (int i = 0; i < 2; i++) {
+      TokenStream stream = factory.create(new MockTokenizer(new StringReader(TEXT), MockTokenizer.WHITESPACE, false));
+      assertTokenStreamContents(stream, STEMS);
+    }
+    assertEquals(15, factory.getCacheHits());
+    assertEquals(9, factory.getCacheMisses());
+  }
+
+  public void testBogusCacheScope() throws Exception {
+    try {
+      createFactory("cacheScope", "bogus");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
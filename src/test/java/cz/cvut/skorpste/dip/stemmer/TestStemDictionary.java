@@ -0,0 +1,223 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilter;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionary;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.dictionary.StemDictionaryBuilder;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveStemmer;
+import cz.cvut.skorpste.dip.stemmer.helebrand.CzechHelebrandStemFilterFactory;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.KeywordTokenizer;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.util.FilesystemResourceLoader;
+import org.tartarus.snowball.ext.CzechHelebrandStemmer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test the dictionary mode of {@link CzechStemFilter} and of the factories.
+ */
+public class TestStemDictionary extends BaseTokenStreamTestCase {
+  private static final String CORPUS = "Pánové, kluci a soudcích.\nkostmi";
+
+  private static StemDictionary createDictionary() throws IOException {
+    StemDictionaryBuilder builder = new StemDictionaryBuilder("Agressive");
+    builder.add("knize", "kniha");
+    builder.addWords(new StringReader(CORPUS), new CzechAgressiveStemmer());
+    return builder.build();
+  }
+
+  private static Analyzer createAnalyzer(final StemDictionary dictionary) {
+    return new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        Tokenizer tokenizer = new MockTokenizer(reader, MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer,
+            new CzechStemFilter(tokenizer, new CzechAgressiveCharStemmer(), dictionary, null, null, null));
+      }
+    };
+  }
+
+  public void testDictionaryWithFallback() throws IOException {
+    StemDictionary dictionary = createDictionary();
+    assertEquals(6, dictionary.size());
+    assertAnalyzesTo(createAnalyzer(dictionary), "pánové kluci knize mužem kostmi a",
+        new String[] { "pán", "klu", "kniha", "muh", "kos", "a" });
+  }
+
+  public void testReadWrite() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    createDictionary().write(out);
+    StemDictionary dictionary = StemDictionary.read(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(6, dictionary.size());
+    assertEquals("Agressive", dictionary.getStemmer());
+    assertAnalyzesTo(createAnalyzer(dictionary), "soudcích knize", new String[] { "soud", "kniha" });
+  }
+
+  public void testEmptyDictionary() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new StemDictionaryBuilder("Agressive").build().write(out);
+    StemDictionary dictionary = StemDictionary.read(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(0, dictionary.size());
+    assertAnalyzesTo(createAnalyzer(dictionary), "kluci", new String[] { "klu" });
+  }
+
+  public void testHelebrand() throws Exception {
+    String[] words = { "pánové", "kluci", "soudcích", "kostmi", "knize", "mužem", "chlapec", "kabát" };
+    StringBuilder text = new StringBuilder();
+    String[] stems = new String[words.length];
+    CzechHelebrandStemmer stemmer = new CzechHelebrandStemmer();
+    for (int i = 0; i < words.length; i++) {
+      text.append(words[i]).append(' ');
+      stemmer.setCurrent(words[i]);
+      stemmer.stem();
+      stems[i] = stemmer.getCurrent();
+    }
+    StemDictionaryBuilder builder = new StemDictionaryBuilder("Helebrand");
+    builder.add("kabát", "kabátek");
+    builder.addWords(new StringReader(text.toString()), new CzechHelebrandStemmer());
+    stems[words.length - 1] = "kabátek";
+    CzechHelebrandStemFilterFactory factory = createHelebrandFactory(builder.build());
+    TokenStream stream = factory.create(new MockTokenizer(new StringReader(text.toString()), MockTokenizer.WHITESPACE, false));
+    assertTokenStreamContents(stream, stems);
+    // forms missing in the dictionary are stemmed
+    stream = factory.create(new MockTokenizer(new StringReader("hradech"), MockTokenizer.WHITESPACE, false));
+    stemmer.setCurrent("hradech");
+    stemmer.stem();
+    assertTokenStreamContents(stream, new String[] { stemmer.getCurrent() });
+
+    try {
+      createHelebrandFactory(createDictionary());
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("Agressive"));
+    }
+  }
+
+  public void testNextGeneration() throws IOException {
+    StemDictionary base = createDictionary();
+    assertEquals(0, base.getGeneration());
+    StemDictionaryBuilder builder = new StemDictionaryBuilder("Agressive", base);
+    builder.add("kluci", "kluk");
+    builder.addWords(new StringReader("Kluci, mužem a ženami"), new CzechAgressiveStemmer());
+    assertEquals(2, builder.size());
+    StemDictionary dictionary = builder.build();
+    assertEquals(1, dictionary.getGeneration());
+    assertEquals(8, dictionary.size());
+
+    // kluci keeps its stem from the base generation
+    assertAnalyzesTo(createAnalyzer(dictionary), "pánové kluci knize mužem ženami kostmi",
+        new String[] { "pán", "klu", "kniha", "muh", "žen", "kos" });
+  }
+
+  /**
+   * @return directory with the dictionary written to stems.fst
+   */
+  private static File writeDictionary(StemDictionary dictionary) throws IOException {
+    File dir = createTempDir("stemdictionary");
+    OutputStream out = new FileOutputStream(new File(dir, "stems.fst"));
+    try {
+      dictionary.write(out);
+    } finally {
+      out.close();
+    }
+    return dir;
+  }
+
+  private static CzechStemFilterFactory createFactory(StemDictionary dictionary, String... params) throws IOException {
+    Map<String, String> args = new HashMap<String, String>();
+    args.put("implementation", "Agressive");
+    args.put("dictionary", "stems.fst");
+    for (int i = 0; i < params.length; i += 2) {
+      args.put(params[i], params[i + 1]);
+    }
+    CzechStemFilterFactory factory = new CzechStemFilterFactory(args);
+    factory.inform(new FilesystemResourceLoader(writeDictionary(dictionary)));
+    return factory;
+  }
+
+  private static CzechHelebrandStemFilterFactory createHelebrandFactory(StemDictionary dictionary) throws IOException {
+    Map<String, String> args = new HashMap<String, String>();
+    args.put("dictionary", "stems.fst");
+    CzechHelebrandStemFilterFactory factory = new CzechHelebrandStemFilterFactory(args);
+    factory.inform(new FilesystemResourceLoader(writeDictionary(dictionary)));
+    return factory;
+  }
+
+  public void testFactory() throws Exception {
+    CzechStemFilterFactory factory = createFactory(createDictionary());
+    TokenStream stream = factory.create(new MockTokenizer(new StringReader("knize mužem"), MockTokenizer.WHITESPACE, false));
+    assertTokenStreamContents(stream, new String[] { "kniha", "muh" });
+  }
+
+  public void testDictionaryStemsAreNotKeywords() throws Exception {
+    CzechStemFilterFactory factory = createFactory(createDictionary());
+    TokenStream stream = factory.create(new MockTokenizer(new StringReader("knize mužem"), MockTokenizer.WHITESPACE, false));
+    KeywordAttribute keywordAtt = stream.addAttribute(KeywordAttribute.class);
+    stream.reset();
+    while (stream.incrementToken()) {
+      assertFalse(keywordAtt.isKeyword());
+    }
+    stream.end();
+    stream.close();
+    assertEquals(2L, factory.getStatistics().get("tokens"));
+    assertEquals(0L, factory.getStatistics().get("keywordTokens"));
+  }
+
+  public void testFactoryRejectsOtherStemmer() throws Exception {
+    StemDictionaryBuilder builder = new StemDictionaryBuilder("Helebrand");
+    builder.addWords(new StringReader(CORPUS), new CzechHelebrandStemmer());
+    try {
+      createFactory(builder.build(), "implementation", "Light");
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("Helebrand"));
+    }
+    try {
+      createFactory(createDictionary(), "stages", "case,possessive");
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("Agressive[case, possessive]"));
+    }
+    String stemmer = StemDictionary.stemmerName("Agressive", CzechAgressiveCharStemmer.Stage.parse(Arrays.asList("possessive", "case")));
+    assertEquals("Agressive[case, possessive]", stemmer);
+    createFactory(new StemDictionaryBuilder(stemmer).build(), "stages", "case,possessive");
+  }
+
+  public void testNextGenerationOfOtherStemmer() throws IOException {
+    try {
+      new StemDictionaryBuilder("Light", createDictionary());
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage().contains("Agressive"));
+    }
+  }
+
+  public void testEmptyTerm() throws IOException {
+    final StemDictionary dictionary = createDictionary();
+    Analyzer a = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        Tokenizer tokenizer = new KeywordTokenizer(reader);
+        return new TokenStreamComponents(tokenizer,
+            new CzechStemFilter(tokenizer, new CzechAgressiveCharStemmer(), dictionary, null, null, null));
+      }
+    };
+    checkOneTerm(a, "", "");
+  }
+}
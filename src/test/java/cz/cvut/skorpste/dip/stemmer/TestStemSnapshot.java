@@ -0,0 +1,87 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.SharedStemCache;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemSnapshot;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemSnapshotWriter;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+
+import java.io.File;
+import java.io.StringReader;
+
+import static cz.cvut.skorpste.dip.stemmer.BaseTestCase.STEMS;
+import static cz.cvut.skorpste.dip.stemmer.BaseTestCase.TEXT;
+
+/**
+ * Test the stem snapshots of {@link CzechStemFilterFactory}.
+ */
+public class TestStemSnapshot extends BaseTokenStreamTestCase {
+  private static CzechStemFilterFactory createFactory(File snapshot) throws Exception {
+    return BaseTestCase.createFactory("cacheSize", "100", "cacheScope", "shared", "cacheSnapshot", snapshot.getAbsolutePath());
+  }
+
+  private static void assertStems(CzechStemFilterFactory factory) throws Exception {
+    TokenStream stream = factory.create(new MockTokenizer(new StringReader(TEXT), MockTokenizer.WHITESPACE, false));
+    assertTokenStreamContents(stream, STEMS);
+  }
+
+  public void testWarmStart() throws Exception {
+    File snapshot = new File(createTempDir("stemsnapshot"), "stems.bin");
+    CzechStemFilterFactory factory = createFactory(snapshot);
+    assertStems(factory);
+    assertEquals(9, factory.getCacheMisses());
+    factory.close();
+    assertTrue(snapshot.isFile());
+
+    factory = createFactory(snapshot);
+    assertStems(factory);
+    // the cache misses are served by the snapshot and its stems are cached
+    assertEquals(3, factory.getCacheHits());
+    assertEquals(9, factory.getCacheMisses());
+  }
+
+  public void testSnapshotIsSearchedOnCacheMiss() throws Exception {
+    StemSnapshotWriter writer = new StemSnapshotWriter(CzechAgressiveCharStemmer.class.getName(), 100);
+    writer.visit("kostmi".toCharArray(), 6, "kostm".toCharArray(), 5);
+    File file = new File(createTempDir("stemsnapshot"), "stems.bin");
+    writer.write(file);
+    CzechStemFilterFactory factory = createFactory(file);
+    for (int i = 0; i < 2; i++) {
+      TokenStream stream = factory.create(new MockTokenizer(new StringReader("kostmi pánové"), MockTokenizer.WHITESPACE, false));
+      assertTokenStreamContents(stream, new String[] { "kostm", "pán" });
+    }
+    assertEquals(2, factory.getCacheHits());
+    assertEquals(2, factory.getCacheMisses());
+  }
+
+  public void testReadWrite() throws Exception {
+    SharedStemCache cache = new SharedStemCache(100);
+    cache.put("mužem".toCharArray(), 5, "muh".toCharArray(), 3);
+    cache.put("kostmi".toCharArray(), 6, "kos".toCharArray(), 3);
+    StemSnapshotWriter writer = new StemSnapshotWriter(CzechAgressiveCharStemmer.class.getName(), 100);
+    cache.export(writer);
+    assertEquals(2, writer.size());
+    File file = new File(createTempDir("stemsnapshot"), "stems.bin");
+    writer.write(file);
+
+    StemSnapshot snapshot = StemSnapshot.open(file, CzechAgressiveCharStemmer.class.getName());
+    assertEquals(2, snapshot.size());
+    char[] buffer = "kostmi".toCharArray();
+    assertEquals(3, snapshot.get(buffer, 6));
+    assertEquals("kos", new String(buffer, 0, 3));
+    assertEquals(-1, snapshot.get("kost".toCharArray(), 4));
+  }
+
+  public void testOtherImplementationIsIgnored() throws Exception {
+    StemSnapshotWriter writer = new StemSnapshotWriter(CzechLightCharStemmer.class.getName(), 100);
+    writer.visit("kostmi".toCharArray(), 6, "kost".toCharArray(), 4);
+    File file = new File(createTempDir("stemsnapshot"), "stems.bin");
+    writer.write(file);
+    assertNull(StemSnapshot.open(file, CzechAgressiveCharStemmer.class.getName()));
+    assertNull(StemSnapshot.open(new File(file.getParentFile(), "missing.bin"), CzechLightCharStemmer.class.getName()));
+  }
+}
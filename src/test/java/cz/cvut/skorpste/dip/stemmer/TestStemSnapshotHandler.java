@@ -0,0 +1,53 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.cache.StemSnapshot;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechLightCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.solr.StemSnapshotHandler;
+import org.apache.solr.SolrTestCaseJ4;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+import java.io.File;
+
+/**
+ * Test that {@link StemSnapshotHandler} writes the stem snapshots of a core on request and when the core is closed.
+ */
+public class TestStemSnapshotHandler extends SolrTestCaseJ4 {
+  private static File snapshot;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    snapshot = new File(createTempDir("stemsnapshot"), "stems.bin");
+    System.setProperty("tests.stemSnapshot", snapshot.getAbsolutePath());
+    initCore("solrconfig.xml", "schema-snapshot.xml", getFile("solr").getAbsolutePath());
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("tests.stemSnapshot");
+    snapshot = null;
+  }
+
+  private static void assertSnapshotContains(String word) throws Exception {
+    assertTrue(snapshot.isFile());
+    StemSnapshot read = StemSnapshot.open(snapshot, CzechLightCharStemmer.class.getName());
+    assertNotNull(read);
+    assertTrue(read.get(word.toCharArray(), word.length()) >= 0);
+  }
+
+  public void testWriteOnRequest() throws Exception {
+    assertU(adoc("id", "1", "text", "pánové soudcích"));
+    assertU(commit());
+    assertTrue(!snapshot.exists() || snapshot.delete());
+    assertQ(req("qt", "/admin/stemsnapshot"), "//lst[@name='snapshots']/str[@name='text_cz']");
+    assertSnapshotContains("soudcích");
+  }
+
+  public void testWriteOnReload() throws Exception {
+    assertU(adoc("id", "2", "text", "kostmi"));
+    assertU(commit());
+    assertTrue(!snapshot.exists() || snapshot.delete());
+    h.reload();
+    assertSnapshotContains("kostmi");
+  }
+}
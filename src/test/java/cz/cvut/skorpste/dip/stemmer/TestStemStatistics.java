@@ -0,0 +1,117 @@
+package cz.cvut.skorpste.dip.stemmer;
+
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilter;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.CzechStemFilterFactory;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.impl.CzechAgressiveCharStemmer;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.stats.StemStatistics;
+import cz.cvut.skorpste.dip.stemmer.dolamicsavoy.stats.StripedCounter;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.SetKeywordMarkerFilter;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.SolrInfoMBean;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import static cz.cvut.skorpste.dip.stemmer.BaseTestCase.createFactory;
+
+/**
+ * Test the statistics of {@link CzechStemFilterFactory}.
+ */
+public class TestStemStatistics extends BaseTokenStreamTestCase {
+
+  private static Analyzer createAnalyzer(final CzechStemFilterFactory factory) {
+    final CharArraySet keywords = new CharArraySet(TEST_VERSION_CURRENT, Arrays.asList("kostmi"), false);
+    return new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        Tokenizer tokenizer = new MockTokenizer(reader, MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer, factory.create(new SetKeywordMarkerFilter(tokenizer, keywords)));
+      }
+    };
+  }
+
+  public void testStatistics() throws Exception {
+    CzechStemFilterFactory factory = createFactory("cacheSize", "10", "cacheScope", "shared");
+    Analyzer analyzer = createAnalyzer(factory);
+    assertAnalyzesTo(analyzer, "pánové soudcích kostmi", new String[] { "pán", "soud", "kostmi" });
+    assertAnalyzesTo(analyzer, "pánové", new String[] { "pán" });
+    NamedList statistics = factory.getStatistics();
+    assertEquals(3L, statistics.get("tokens"));
+    assertEquals(1L, statistics.get("keywordTokens"));
+    assertEquals(20.0 / 3, (Double) statistics.get("averageTokenLength"), 1e-9);
+    assertEquals(1 - 10.0 / 20, (Double) statistics.get("stemReductionRatio"), 1e-9);
+    assertEquals(1L, statistics.get("timedTokens"));
+    assertTrue((Long) statistics.get("stemmingNanos") > 0);
+    assertEquals(1L, statistics.get("cacheHits"));
+    assertEquals(2L, statistics.get("cacheMisses"));
+    assertEquals(SolrInfoMBean.Category.OTHER, factory.getCategory());
+  }
+
+  public void testSampledTiming() throws Exception {
+    final StemStatistics statistics = new StemStatistics();
+    Analyzer analyzer = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        Tokenizer tokenizer = new MockTokenizer(reader, MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer,
+            new CzechStemFilter(tokenizer, new CzechAgressiveCharStemmer(), null, null, statistics));
+      }
+    };
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      text.append("soudcích ");
+    }
+    // the 1st, 65th, 129th and 193rd token is timed, the countdown goes on in the next stream
+    consume(analyzer, text.toString());
+    consume(analyzer, "pánové");
+    assertEquals(201, statistics.getTokens());
+    assertEquals(4, statistics.getTimedTokens());
+  }
+
+  private static void consume(Analyzer analyzer, String text) throws IOException {
+    TokenStream stream = analyzer.tokenStream("dummy", text);
+    try {
+      stream.reset();
+      while (stream.incrementToken()) {
+      }
+      stream.end();
+    } finally {
+      stream.close();
+    }
+  }
+
+  public void testStatisticsDisabled() throws Exception {
+    CzechStemFilterFactory factory = createFactory("statistics", "false");
+    assertAnalyzesTo(createAnalyzer(factory), "pánové soudcích", new String[] { "pán", "soud" });
+    NamedList statistics = factory.getStatistics();
+    assertNull(statistics.get("tokens"));
+    assertNull(statistics.get("cacheHits"));
+  }
+
+  public void testStripedCounter() throws Exception {
+    final StripedCounter counter = new StripedCounter(3);
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 10000; i++) {
+            counter.increment();
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(80000, counter.sum());
+  }
+}